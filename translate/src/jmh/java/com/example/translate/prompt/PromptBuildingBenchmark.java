@@ -0,0 +1,76 @@
+package com.example.translate.prompt;
+
+import com.example.translate.config.TranslateProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * prompt组装基准
+ * <p>
+ * legacyPreparePrompt 复现最初每次请求都从classpath读取模板再拼接的做法，作为对照基线。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBuildingBenchmark {
+
+    @Param({"200", "2000", "16000"})
+    private int textLength;
+
+    @Param({"true", "false"})
+    private boolean includeVocabulary;
+
+    private PromptRegistry registry;
+
+    private ResourceLoader resourceLoader;
+
+    private String text;
+
+    @Setup
+    public void setup() throws IOException {
+        registry = new PromptRegistry();
+        ReflectionTestUtils.setField(registry, "properties", new TranslateProperties());
+        registry.reload();
+        resourceLoader = new DefaultResourceLoader();
+
+        StringBuilder sb = new StringBuilder(textLength);
+        while (sb.length() < textLength) {
+            sb.append("The quick brown fox jumps over the lazy dog. ");
+        }
+        text = sb.substring(0, textLength);
+    }
+
+    @Benchmark
+    public String buildTranslateMessage() {
+        return registry.buildTranslateMessage(includeVocabulary, text);
+    }
+
+    @Benchmark
+    public String legacyPreparePrompt() throws IOException {
+        String promptUrl = includeVocabulary
+                ? "classpath:file/prompt-with-vocabulary.txt"
+                : "classpath:file/prompt-no-vocabulary.txt";
+        Resource resource = resourceLoader.getResource(promptUrl);
+        try (InputStream inputStream = resource.getInputStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            String line;
+            StringBuilder content = new StringBuilder();
+            while ((line = reader.readLine()) != null) {
+                content.append(line).append("\n");
+            }
+            return content.toString() + PromptRegistry.TEXT_PREFIX + text;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.translate.util;
+
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeepSeek返回值解析基准：流式定位json并绑定 TranslateOutput，与旧的正则去除代码块 + readValue 对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultParsingBenchmark {
+
+    @Param({"0", "10", "50"})
+    private int vocabularySize;
+
+    /**
+     * json外层的包装：none 纯json，fence markdown代码块，prose 代码块前后带说明文字
+     */
+    @Param({"none", "fence", "prose"})
+    private String wrapping;
+
+    private String response;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        TranslateOutput output = new TranslateOutput();
+        output.setSuccess(Boolean.TRUE);
+        StringBuilder translation = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            translation.append("敏捷的棕色狐狸跳过了懒狗。");
+        }
+        output.setTranslation(translation.toString());
+        if (vocabularySize > 0) {
+            List<Vocabulary> vocabulary = new ArrayList<>(vocabularySize);
+            for (int i = 0; i < vocabularySize; i++) {
+                Vocabulary v = new Vocabulary();
+                v.setEnglish("word" + i);
+                v.setChinese("单词" + i);
+                v.setExplanation("这是第" + i + "个单词的解释，用于测试较长的说明文本。");
+                vocabulary.add(v);
+            }
+            output.setVocabulary(vocabulary);
+        }
+        String json = TranslateResultParser.OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(output);
+        if ("fence".equals(wrapping)) {
+            response = "```json\n" + json + "\n```";
+        } else if ("prose".equals(wrapping)) {
+            response = "Here is the translation:\n```json\n" + json + "\n```\nLet me know if you need anything else.";
+        } else {
+            response = json;
+        }
+    }
+
+    /**
+     * 旧实现：两次replaceAll去除代码块后再整体反序列化，prose包装时会失败
+     */
+    @Benchmark
+    public TranslateOutput regexParse() {
+        String json = response.replaceAll("^```json\\s*", "").replaceAll("\\s*```$", "").trim();
+        try {
+            return TranslateResultParser.OBJECT_MAPPER.readValue(json, TranslateOutput.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public TranslateOutput parse() {
+        return TranslateResultParser.parse(response);
+    }
+}
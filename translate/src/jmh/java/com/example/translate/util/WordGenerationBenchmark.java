@@ -0,0 +1,81 @@
+package com.example.translate.util;
+
+import com.example.translate.model.word.DynamicTable;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word文档生成基准：模板替换 + 不同行数的词汇表
+ * <p>
+ * generateWord 为每次解析模板的XWPF方式，compiledTemplate 为预编译模板方式。
+ * 表格结构与 TranslateServiceImpl 中生成的词汇表一致，模板只在初始化时读取一次。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordGenerationBenchmark {
+
+    @Param({"0", "10", "100", "1000"})
+    private int vocabularyRows;
+
+    private byte[] template;
+
+    private Map<String, String> data;
+
+    private Path output;
+
+    private CompiledWordTemplate compiledTemplate;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = new ClassPathResource("file/template.docx").getInputStream()) {
+            template = StreamUtils.copyToByteArray(in);
+        }
+        data = new HashMap<>();
+        data.put("input", "The quick brown fox jumps over the lazy dog. It was a bright cold day in April.");
+        data.put("output", "敏捷的棕色狐狸跳过了懒狗。四月里一个晴朗而寒冷的日子。");
+        compiledTemplate = CompiledWordTemplate.compile(new ByteArrayInputStream(template));
+        output = Files.createTempFile("word-benchmark", ".docx");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public Path generateWord() throws IOException {
+        AdvancedWordGenerator.generateWord(new ByteArrayInputStream(template), output.toString(), data,
+                Collections.singletonList(vocabularyTable()));
+        return output;
+    }
+
+    @Benchmark
+    public Path compiledTemplate() throws IOException {
+        compiledTemplate.render(output.toString(), data, Collections.singletonList(vocabularyTable()));
+        return output;
+    }
+
+    private DynamicTable vocabularyTable() {
+        List<List<String>> rows = new ArrayList<>(vocabularyRows);
+        for (int i = 0; i < vocabularyRows; i++) {
+            rows.add(Arrays.asList("word" + i, "单词" + i, "这是第" + i + "个单词的解释"));
+        }
+        DynamicTable table = new DynamicTable("vocabulary", Arrays.asList("单词", "中文", "解释"), rows);
+        table.getStyle().setWidth("90%");
+        table.getStyle().setAutoLayout(true);
+        return table;
+    }
+}
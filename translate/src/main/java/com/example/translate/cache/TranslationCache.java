@@ -0,0 +1,307 @@
+package com.example.translate.cache;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import com.example.translate.prompt.PromptRegistry;
+import com.example.translate.util.TextHashUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 翻译结果缓存
+ * <p>
+ * 以“归一化文本 + prompt变体 + 模板摘要”的SHA-256作为键，模板热加载后旧模板的结果不再命中；内存层按LRU + TTL淘汰，并按估算大小限制总容量；
+ * 可选的磁盘层把结果以json文件保存在本地，服务重启后仍能命中。
+ */
+@Component
+@Slf4j
+public class TranslationCache {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 每个条目除文本外的固定开销估算（字节）
+     */
+    private static final long ENTRY_OVERHEAD = 96;
+
+    @Autowired
+    private TranslateProperties properties;
+
+    @Autowired
+    private PromptRegistry promptRegistry;
+
+    /**
+     * accessOrder=true 的LinkedHashMap即为LRU顺序，所有访问都在 this 上同步
+     */
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long totalWeight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        TranslateProperties.Cache config = properties.getCache();
+        if (config.isEnabled() && config.isDiskEnabled()) {
+            purgeExpiredDiskEntries();
+        }
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param text 待翻译文本
+     * @param includeVocabulary 是否提取词汇（对应不同的prompt）
+     * @return 缓存键，随当前prompt模板变化
+     */
+    public String keyOf(String text, boolean includeVocabulary) {
+        String variant = (includeVocabulary ? "vocabulary|" : "plain|") + promptRegistry.getFingerprint();
+        return TextHashUtils.sha256Hex(variant + '\n' + TextHashUtils.normalize(text));
+    }
+
+    /**
+     * 查询缓存，命中时返回结果的副本
+     *
+     * @param key 缓存键
+     * @return 未命中时返回null
+     */
+    public TranslateOutput get(String key) {
+        TranslateProperties.Cache config = properties.getCache();
+        if (!config.isEnabled()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.getExpireAt() > now) {
+                    hits.incrementAndGet();
+                    return copyOf(entry.getOutput());
+                }
+                removeEntry(key);
+            }
+        }
+
+        if (config.isDiskEnabled()) {
+            CacheEntry entry = readFromDisk(key, now);
+            if (entry != null) {
+                synchronized (this) {
+                    putEntry(key, entry);
+                }
+                hits.incrementAndGet();
+                diskHits.incrementAndGet();
+                return copyOf(entry.getOutput());
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 写入缓存，只应缓存DeepSeek正常返回并成功解析的结果
+     *
+     * @param key 缓存键
+     * @param output 翻译结果
+     */
+    public void put(String key, TranslateOutput output) {
+        TranslateProperties.Cache config = properties.getCache();
+        if (!config.isEnabled() || output == null) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry();
+        entry.setOutput(copyOf(output));
+        entry.setExpireAt(System.currentTimeMillis() + config.getTtl().toMillis());
+        entry.setWeight(weigh(output));
+        if (entry.getWeight() > config.getMaxWeight().toBytes()) {
+            return;
+        }
+        synchronized (this) {
+            putEntry(key, entry);
+        }
+        if (config.isDiskEnabled()) {
+            writeToDisk(key, entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * 放入条目并按条目数、总大小淘汰最久未使用的条目，调用方需持有锁
+     */
+    private void putEntry(String key, CacheEntry entry) {
+        CacheEntry old = entries.put(key, entry);
+        if (old != null) {
+            totalWeight -= old.getWeight();
+        }
+        totalWeight += entry.getWeight();
+
+        TranslateProperties.Cache config = properties.getCache();
+        long maxWeight = config.getMaxWeight().toBytes();
+        Iterator<Map.Entry<String, CacheEntry>> it = entries.entrySet().iterator();
+        while ((entries.size() > config.getMaxEntries() || totalWeight > maxWeight) && it.hasNext()) {
+            Map.Entry<String, CacheEntry> eldest = it.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            totalWeight -= eldest.getValue().getWeight();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void removeEntry(String key) {
+        CacheEntry removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.getWeight();
+        }
+    }
+
+    private Path diskPath(String key) {
+        return Paths.get(properties.getCache().getDiskDir(), key + ".json");
+    }
+
+    private CacheEntry readFromDisk(String key, long now) {
+        Path path = diskPath(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            CacheEntry entry = OBJECT_MAPPER.readValue(path.toFile(), CacheEntry.class);
+            if (entry.getExpireAt() <= now || entry.getOutput() == null) {
+                Files.deleteIfExists(path);
+                return null;
+            }
+            entry.setWeight(weigh(entry.getOutput()));
+            return entry;
+        } catch (IOException e) {
+            log.warn("读取磁盘缓存失败：{}", path, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CacheEntry entry) {
+        Path target = diskPath(key);
+        try {
+            Files.createDirectories(target.getParent());
+            // 先写临时文件再原子替换，避免并发读到半成品
+            Path tmp = Files.createTempFile(target.getParent(), key, ".tmp");
+            OBJECT_MAPPER.writeValue(tmp.toFile(), entry);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写入磁盘缓存失败：{}", target, e);
+        }
+    }
+
+    /**
+     * 启动时清理磁盘上已过期的缓存文件
+     */
+    private void purgeExpiredDiskEntries() {
+        Path dir = Paths.get(properties.getCache().getDiskDir());
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        long expireBefore = System.currentTimeMillis() - properties.getCache().getTtl().toMillis();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".json") || p.getFileName().toString().endsWith(".tmp"))
+                    .forEach(p -> {
+                        try {
+                            if (Files.getLastModifiedTime(p).toMillis() < expireBefore) {
+                                Files.deleteIfExists(p);
+                            }
+                        } catch (IOException e) {
+                            log.warn("清理磁盘缓存失败：{}", p, e);
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("扫描磁盘缓存目录失败：{}", dir, e);
+        }
+    }
+
+    /**
+     * 估算结果占用的内存（字节）
+     */
+    private static long weigh(TranslateOutput output) {
+        long chars = length(output.getTranslation());
+        if (output.getVocabulary() != null) {
+            for (Vocabulary v : output.getVocabulary()) {
+                chars += length(v.getEnglish()) + length(v.getChinese()) + length(v.getExplanation());
+            }
+        }
+        return ENTRY_OVERHEAD + chars * 2;
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    /**
+     * 复制翻译结果，调用方后续对结果的修改（如设置文档地址）不会影响缓存
+     */
+    public static TranslateOutput copyOf(TranslateOutput source) {
+        TranslateOutput copy = new TranslateOutput();
+        copy.setSuccess(source.getSuccess());
+        copy.setTranslation(source.getTranslation());
+        copy.setWordDocumentUrl(source.getWordDocumentUrl());
+        if (source.getVocabulary() != null) {
+            List<Vocabulary> vocabulary = new ArrayList<>(source.getVocabulary().size());
+            for (Vocabulary v : source.getVocabulary()) {
+                Vocabulary item = new Vocabulary();
+                item.setEnglish(v.getEnglish());
+                item.setChinese(v.getChinese());
+                item.setExplanation(v.getExplanation());
+                vocabulary.add(item);
+            }
+            copy.setVocabulary(vocabulary);
+        }
+        return copy;
+    }
+
+    @Data
+    static class CacheEntry {
+        private TranslateOutput output;
+        private long expireAt;
+        @JsonIgnore
+        private long weight;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.translate.config;
+
+import com.example.translate.store.DocumentStore;
+import com.example.translate.store.LocalDocumentStore;
+import com.example.translate.store.S3DocumentStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 按 translate.store.type 创建文档存储
+ */
+@Configuration
+public class DocumentStoreConfig {
+
+    @Bean
+    public DocumentStore documentStore(TranslateProperties properties) {
+        TranslateProperties.Store config = properties.getStore();
+        if ("s3".equalsIgnoreCase(config.getType())) {
+            return new S3DocumentStore(config.getS3());
+        }
+        if (!"local".equalsIgnoreCase(config.getType())) {
+            throw new IllegalStateException("不支持的文档存储类型：" + config.getType());
+        }
+        return new LocalDocumentStore(config.getLocal());
+    }
+}
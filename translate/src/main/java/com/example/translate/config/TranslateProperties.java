@@ -0,0 +1,522 @@
+package com.example.translate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 翻译服务配置，对应 application.yml 中的 translate.*
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "translate")
+public class TranslateProperties {
+
+    private Cache cache = new Cache();
+
+    private Prompt prompt = new Prompt();
+
+    private Chunk chunk = new Chunk();
+
+    private Job job = new Job();
+
+    private Stream stream = new Stream();
+
+    private Batch batch = new Batch();
+
+    private DeepSeek deepseek = new DeepSeek();
+
+    /**
+     * 翻译服务商列表，为空时只使用 deepseek 中配置的默认接入点
+     */
+    private List<Provider> providers = new ArrayList<>();
+
+    private Routing routing = new Routing();
+
+    private Word word = new Word();
+
+    private Store store = new Store();
+
+    private Usage usage = new Usage();
+
+    private Detect detect = new Detect();
+
+    private Memory memory = new Memory();
+
+    private Glossary glossary = new Glossary();
+
+    private Coalesce coalesce = new Coalesce();
+
+    private Web web = new Web();
+
+    private Docx docx = new Docx();
+
+    /**
+     * 翻译结果缓存配置
+     */
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        /**
+         * 内存中最多缓存的条目数
+         */
+        private int maxEntries = 10000;
+        /**
+         * 内存中缓存结果的估算总大小上限
+         */
+        private DataSize maxWeight = DataSize.ofMegabytes(64);
+        /**
+         * 缓存有效期
+         */
+        private Duration ttl = Duration.ofHours(24);
+        /**
+         * 是否启用本地磁盘持久化，重启后可直接命中
+         */
+        private boolean diskEnabled = false;
+        private String diskDir = "cache/translation";
+    }
+
+    /**
+     * prompt模板配置
+     */
+    @Data
+    public static class Prompt {
+        /**
+         * 模板覆盖目录，目录中的 prompt-*.txt 会覆盖classpath中的同名模板，为空时只使用classpath模板
+         */
+        private String overrideDir;
+        /**
+         * 覆盖目录中的模板变化时是否自动重新加载
+         */
+        private boolean hotReload = true;
+    }
+
+    /**
+     * 长文本分段翻译配置
+     */
+    @Data
+    public static class Chunk {
+        private boolean enabled = true;
+        /**
+         * 每个分段的token上限（按英文约4个字符/token估算），超过该值的文本才会分段
+         */
+        private int maxTokens = 1500;
+    }
+
+    /**
+     * 异步翻译任务配置
+     */
+    @Data
+    public static class Job {
+        /**
+         * 执行任务的线程数
+         */
+        private int workers = 16;
+        /**
+         * 排队任务数上限，超过后直接拒绝
+         */
+        private int queueCapacity = 1000;
+        /**
+         * 已结束任务的保留时间
+         */
+        private Duration retention = Duration.ofHours(1);
+        /**
+         * 清理过期任务的间隔（毫秒）
+         */
+        private long sweepInterval = 60000;
+        private Duration callbackTimeout = Duration.ofSeconds(5);
+        /**
+         * 回调地址的主机白名单，以"."开头的条目匹配其所有子域名；为空时允许任意公网主机，禁止回调到内网地址
+         */
+        private List<String> callbackAllowedHosts = new ArrayList<>();
+    }
+
+    /**
+     * 流式翻译配置
+     */
+    @Data
+    public static class Stream {
+        /**
+         * SSE连接的超时时间
+         */
+        private Duration timeout = Duration.ofMinutes(5);
+    }
+
+    /**
+     * 批量翻译配置
+     */
+    @Data
+    public static class Batch {
+        /**
+         * 单次请求允许的最大条目数
+         */
+        private int maxInputs = 500;
+        /**
+         * 打包到同一次DeepSeek请求中的条目数上限
+         */
+        private int maxItems = 50;
+        /**
+         * 打包到同一次DeepSeek请求中的文本token上限，超过该值的单个文本单独翻译
+         */
+        private int maxTokens = 1500;
+    }
+
+    /**
+     * DeepSeek调用配置
+     */
+    @Data
+    public static class DeepSeek {
+        private String baseUrl = "https://api.deepseek.com";
+        private String apiKey;
+        /**
+         * 同时进行的DeepSeek请求数上限
+         */
+        private int maxConcurrency = 16;
+        /**
+         * 等待执行的请求数上限，超过后直接拒绝
+         */
+        private int queueCapacity = 200;
+        /**
+         * 每秒请求数上限，与服务商的速率限制保持一致，0表示不限制
+         */
+        private double rateLimit = 0;
+        /**
+         * 等待速率令牌的最长时间
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        /**
+         * 单次调用的超时时间
+         */
+        private Duration callTimeout = Duration.ofSeconds(60);
+        /**
+         * 超时、网络异常、429/5xx等临时性错误的最大重试次数
+         */
+        private int maxRetries = 2;
+        /**
+         * 首次重试的退避时间，之后每次翻倍
+         */
+        private Duration retryBackoff = Duration.ofMillis(500);
+        private Duration retryMaxBackoff = Duration.ofSeconds(5);
+        private Hedge hedge = new Hedge();
+        private Breaker breaker = new Breaker();
+    }
+
+    /**
+     * 对冲请求配置：调用超过近期耗时分位数仍未返回时补发一次请求
+     */
+    @Data
+    public static class Hedge {
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        /**
+         * 对冲前的最短等待时间
+         */
+        private Duration minDelay = Duration.ofSeconds(2);
+        /**
+         * 耗时样本数达到该值后才开始对冲
+         */
+        private int minSamples = 20;
+    }
+
+    /**
+     * 熔断器配置
+     */
+    @Data
+    public static class Breaker {
+        /**
+         * 统计失败率的滑动窗口大小（调用次数）
+         */
+        private int windowSize = 20;
+        /**
+         * 窗口内调用次数达到该值后才计算失败率
+         */
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 0.5;
+        /**
+         * 熔断打开后持续的时间，之后进入半开状态
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+        /**
+         * 半开状态允许的试探请求数
+         */
+        private int halfOpenCalls = 3;
+    }
+
+    /**
+     * 翻译服务商配置
+     */
+    @Data
+    public static class Provider {
+        private String name;
+        /**
+         * 类型：deepseek 或 stub（本地离线桩）
+         */
+        private String type = "deepseek";
+        /**
+         * 路由权重，0表示不参与路由
+         */
+        private int weight = 1;
+        /**
+         * deepseek类型的接入点与密钥，为空时使用 translate.deepseek 中的配置
+         */
+        private String baseUrl;
+        private String apiKey;
+        /**
+         * stub类型的固定延迟与随机抖动
+         */
+        private Duration latency = Duration.ofMillis(200);
+        private Duration jitter = Duration.ZERO;
+    }
+
+    /**
+     * 服务商路由配置
+     */
+    @Data
+    public static class Routing {
+        /**
+         * weighted：按权重随机；latency：按权重与近期p95耗时综合选择更快的服务商
+         */
+        private String strategy = "weighted";
+        /**
+         * latency策略下耗时样本数达到该值的服务商才按自身p95计算权重，样本不足的服务商（包括不统计耗时的本地桩）
+         * 按已达到样本数的服务商p95的中位数计算，没有任何服务商达到时按权重随机
+         */
+        private int minSamples = 20;
+    }
+
+    /**
+     * Word文档生成配置
+     */
+    @Data
+    public static class Word {
+        /**
+         * 模板位置
+         */
+        private String template = "classpath:file/template.docx";
+        /**
+         * 是否使用启动时预编译的模板生成文档，关闭后回退到每次解析模板的XWPF方式
+         */
+        private boolean compiled = true;
+    }
+
+    /**
+     * 生成文档的存储配置
+     */
+    @Data
+    public static class Store {
+        /**
+         * 存储类型：local（本地文件系统）或 s3（S3兼容对象存储）
+         */
+        private String type = "local";
+        /**
+         * 本地存储清理间隔（毫秒）
+         */
+        private long sweepInterval = 600000;
+        private Local local = new Local();
+        private S3 s3 = new S3();
+    }
+
+    @Data
+    public static class Local {
+        /**
+         * 存储目录，下载接口只允许访问该目录下的文件
+         */
+        private String dir = "download";
+        /**
+         * 文档自最后一次访问起的保留时间
+         */
+        private Duration ttl = Duration.ofDays(7);
+        /**
+         * 总大小与文件数上限，超出时从最久未访问的文档开始删除
+         */
+        private DataSize maxSize = DataSize.ofGigabytes(10);
+        private int maxFiles = 100000;
+    }
+
+    @Data
+    public static class S3 {
+        /**
+         * 接入地址，如 https://s3.us-east-1.amazonaws.com 或 http://localhost:9000（MinIO）
+         */
+        private String endpoint;
+        private String region = "us-east-1";
+        private String bucket;
+        private String accessKey;
+        private String secretKey;
+        /**
+         * 对象key前缀，存储桶生命周期规则按该前缀配置过期时间
+         */
+        private String prefix = "documents/";
+        /**
+         * 是否使用路径风格地址（endpoint/bucket/key），MinIO等通常需要开启
+         */
+        private boolean pathStyle = true;
+        /**
+         * 下载预签名URL的有效期
+         */
+        private Duration presignTtl = Duration.ofMinutes(15);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(60);
+    }
+
+    /**
+     * 调用方用量统计与配额配置
+     */
+    @Data
+    public static class Usage {
+        private boolean enabled = true;
+        /**
+         * 携带调用方API key的请求头，未携带或不是已配置的API key时按客户端IP统计
+         */
+        private String clientHeader = "X-Api-Key";
+        /**
+         * 用量汇总写入间隔（毫秒）
+         */
+        private long flushInterval = 60000;
+        /**
+         * 用量汇总追加写入的文件（每行一个json），为空时只输出日志
+         */
+        private String flushFile;
+        /**
+         * 调用方空闲超过该时间后释放其统计与限流状态
+         */
+        private Duration idleTimeout = Duration.ofHours(1);
+        /**
+         * 未单独配置的调用方的每分钟请求数与token数（提示+生成）上限，0表示不限制
+         */
+        private int requestsPerMinute = 0;
+        private long tokensPerMinute = 0;
+        /**
+         * 按API key单独配置的调用方
+         */
+        private List<Client> clients = new ArrayList<>();
+    }
+
+    @Data
+    public static class Client {
+        /**
+         * 调用方名称，用于统计与日志，不会输出API key本身
+         */
+        private String name;
+        private String apiKey;
+        /**
+         * 每分钟请求数与token数上限，0表示不限制，为空时使用默认配额
+         */
+        private Integer requestsPerMinute;
+        private Long tokensPerMinute;
+    }
+
+    /**
+     * 调用大模型前的本地英文预检配置
+     */
+    @Data
+    public static class Detect {
+        private boolean enabled = true;
+        /**
+         * 非拉丁字母（中日韩文字、西里尔字母等）占字母总数的比例上限，英文中夹杂个别外文字词时仍放行；
+         * 单个希腊字母与微符号按符号处理，不计入
+         */
+        private double maxForeignRatio = 0.05;
+        /**
+         * 字母数少于该值时只做字符集检查，不做重音字母比例与三元组模型判断
+         */
+        private int minLetters = 40;
+        /**
+         * 带重音符号的拉丁字母占字母总数的比例上限
+         */
+        private double maxAccentedRatio = 0.05;
+        /**
+         * 字母三元组在英文模型下的平均对数概率（log2）下限，低于该值判定为非英文；
+         * 普通英文在-2.3到-4之间，缩写、人名地名密集的英文可低至-6，与其它拉丁语系语言（-4.3到-6）重叠，
+         * 默认只过滤乱码，其它语言交给大模型判断
+         */
+        private double minScore = -7;
+    }
+
+    /**
+     * 句子级翻译记忆配置
+     */
+    @Data
+    public static class Memory {
+        private boolean enabled = true;
+        /**
+         * 最多保存的句子数，超出时淘汰最久未使用的句子
+         */
+        private int maxEntries = 100000;
+        /**
+         * 句子数达到该值的文本才查询记忆，有句子精确命中时才按句子拆分，否则整体翻译
+         */
+        private int minSentences = 2;
+        /**
+         * 相似句子的相似度阈值（字符三元组Dice系数），达到阈值的句子译文只作为prompt中的参考，0表示不查找相似句子
+         */
+        private double fuzzyThreshold = 0.95;
+        /**
+         * 归一化后长度不足该值的句子只做精确匹配，短句改动一个词也可能完全改变含义
+         */
+        private int fuzzyMinLength = 30;
+    }
+
+    /**
+     * 术语表配置
+     */
+    @Data
+    public static class Glossary {
+        private boolean enabled = true;
+        /**
+         * 术语文件（每行一个json），为空时术语只保存在内存中
+         */
+        private String file = "glossary/terms.jsonl";
+        /**
+         * 是否自动收录模型提取出的新词汇
+         */
+        private boolean learn = true;
+        /**
+         * 每次请求最多注入prompt的术语数
+         */
+        private int maxPromptTerms = 50;
+        /**
+         * 收录新术语后重建匹配器的最小间隔
+         */
+        private Duration rebuildInterval = Duration.ofSeconds(10);
+    }
+
+    /**
+     * 相同请求合并配置
+     */
+    @Data
+    public static class Coalesce {
+        /**
+         * 同时到达的相同文本（归一化后）只调用一次模型，其余请求等待并共享结果
+         */
+        private boolean enabled = true;
+    }
+
+    /**
+     * 接口层线程配置
+     */
+    @Data
+    public static class Web {
+        /**
+         * 用虚拟线程处理请求，需要运行在JDK 21及以上，否则继续使用平台线程池
+         */
+        private boolean virtualThreads = false;
+    }
+
+    /**
+     * 上传word文档翻译配置
+     */
+    @Data
+    public static class Docx {
+        /**
+         * 每批提交翻译的段落数，批内段落打包并行翻译
+         */
+        private int windowSize = 200;
+    }
+}
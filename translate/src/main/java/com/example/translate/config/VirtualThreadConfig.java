@@ -0,0 +1,72 @@
+package com.example.translate.config;
+
+import com.example.translate.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虚拟线程模式
+ * <p>
+ * 开启 translate.web.virtual-threads 且运行在JDK 21及以上时，Tomcat请求处理与Spring MVC异步响应（如流式返回的word文档）
+ * 都改为每个请求一个虚拟线程，等待大模型返回时只占用内存，不再受 server.tomcat.threads.max 限制；
+ * JVM不支持虚拟线程时记录警告并继续使用平台线程池。
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private TranslateProperties properties;
+
+    /**
+     * 未开启或不支持虚拟线程时为null
+     */
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (!properties.getWeb().isVirtualThreads()) {
+            return;
+        }
+        executor = VirtualThreads.newExecutor("http-virtual-");
+        if (executor == null) {
+            log.warn("当前JVM（{}）不支持虚拟线程，需要JDK 21及以上，继续使用平台线程池", System.getProperty("java.version"));
+        } else {
+            log.info("已启用虚拟线程处理请求");
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (executor != null) {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.translate.config;
+
+import com.example.translate.web.ClientQuotaInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 接口层配置：翻译接口按调用方统计用量并执行配额，下载接口与异步任务状态查询不计入
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ClientQuotaInterceptor clientQuotaInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(clientQuotaInterceptor)
+                .addPathPatterns("/api/**")
+                // 轮询自己提交的任务不应消耗请求配额
+                .excludePathPatterns("/api/download", "/api/v2/translate/jobs/*");
+    }
+}
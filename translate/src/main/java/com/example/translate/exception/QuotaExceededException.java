@@ -0,0 +1,20 @@
+package com.example.translate.exception;
+
+import lombok.Getter;
+
+/**
+ * 调用方超出请求数或token配额时拒绝请求
+ */
+@Getter
+public class QuotaExceededException extends TranslateException {
+
+    /**
+     * 建议的重试等待时间（秒）
+     */
+    private final long retryAfterSeconds;
+
+    public QuotaExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.translate.exception;
+
+/**
+ * DeepSeek返回值无法解析为约定的json
+ */
+public class ResultParseException extends TranslateException {
+
+    public ResultParseException(String message) {
+        super(message);
+    }
+
+    public ResultParseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
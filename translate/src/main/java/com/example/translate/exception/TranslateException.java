@@ -0,0 +1,15 @@
+package com.example.translate.exception;
+
+/**
+ * 翻译流程中的业务异常，message 会直接作为失败结果返回给调用方
+ */
+public class TranslateException extends RuntimeException {
+
+    public TranslateException(String message) {
+        super(message);
+    }
+
+    public TranslateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
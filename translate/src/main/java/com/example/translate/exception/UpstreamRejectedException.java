@@ -0,0 +1,15 @@
+package com.example.translate.exception;
+
+/**
+ * 上游（DeepSeek）并发或速率已达上限时快速拒绝新请求
+ */
+public class UpstreamRejectedException extends TranslateException {
+
+    public UpstreamRejectedException(String message) {
+        super(message);
+    }
+
+    public UpstreamRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
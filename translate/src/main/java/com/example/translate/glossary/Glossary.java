@@ -0,0 +1,253 @@
+package com.example.translate.glossary;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.Vocabulary;
+import com.example.translate.util.AhoCorasick;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 术语表
+ * <p>
+ * 累积DeepSeek提取出的专业词汇（英文术语 -> 中文、解释），以每行一个json的形式追加写入本地文件，
+ * 启动时重放文件恢复；同一术语以最先收录的译法为准，保证前后翻译一致。
+ * 请求到来时用Aho–Corasick自动机线性扫描文本找出已知术语，只把命中的条目注入prompt，
+ * 并直接作为词汇返回，模型无需重新提取。
+ */
+@Component
+@Slf4j
+public class Glossary {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 只收录由字母、数字、空格、连字符、撇号和点组成的英文术语
+     */
+    private static final Pattern TERM_PATTERN = Pattern.compile("[A-Za-z0-9][A-Za-z0-9 .'\\-]*");
+
+    private static final int MAX_TERM_LENGTH = 64;
+
+    @Autowired
+    private TranslateProperties properties;
+
+    /**
+     * 归一化术语 -> 词条，只在 this 上同步修改
+     */
+    private final Map<String, Vocabulary> terms = new LinkedHashMap<>();
+
+    /**
+     * 当前术语对应的匹配器与词条快照，收录新术语后按 rebuild-interval 定期重建
+     */
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+    private volatile boolean dirty;
+
+    private volatile long builtAt;
+
+    private final Object rebuildLock = new Object();
+
+    @PostConstruct
+    public void init() throws IOException {
+        TranslateProperties.Glossary config = properties.getGlossary();
+        if (!config.isEnabled() || StringUtils.isBlank(config.getFile())) {
+            return;
+        }
+        Path file = Paths.get(config.getFile());
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                lines++;
+                try {
+                    Vocabulary vocabulary = OBJECT_MAPPER.readValue(line, Vocabulary.class);
+                    if (isValid(vocabulary)) {
+                        terms.putIfAbsent(keyOf(vocabulary.getEnglish()), vocabulary);
+                    }
+                } catch (IOException e) {
+                    log.warn("跳过术语表中无法解析的行：{}", line);
+                }
+            }
+        }
+        // 重复或无效的行过多时重写文件
+        if (lines > terms.size() * 2 + 100) {
+            rewrite(file);
+        }
+        dirty = true;
+        log.info("已加载术语表：{}，共{}个术语", file.toAbsolutePath(), terms.size());
+    }
+
+    public boolean isEnabled() {
+        return properties.getGlossary().isEnabled();
+    }
+
+    /**
+     * 查找文本中出现的已知术语
+     *
+     * @param text 待翻译文本
+     * @return 命中的词条（副本），按在文本中出现的顺序，最多 max-prompt-terms 个
+     */
+    public List<Vocabulary> match(String text) {
+        if (!isEnabled()) {
+            return Collections.emptyList();
+        }
+        Snapshot current = current();
+        if (current.entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int limit = properties.getGlossary().getMaxPromptTerms();
+        List<Vocabulary> matched = new ArrayList<>();
+        for (Integer i : current.matcher.findAll(text)) {
+            if (matched.size() >= limit) {
+                break;
+            }
+            matched.add(copyOf(current.entries.get(i)));
+        }
+        return matched;
+    }
+
+    /**
+     * 收录模型新提取的词汇，已有的术语保持原译法不变
+     */
+    public void learn(List<Vocabulary> vocabulary) {
+        TranslateProperties.Glossary config = properties.getGlossary();
+        if (!config.isEnabled() || !config.isLearn() || vocabulary == null || vocabulary.isEmpty()) {
+            return;
+        }
+        List<Vocabulary> added = new ArrayList<>();
+        synchronized (this) {
+            for (Vocabulary v : vocabulary) {
+                if (isValid(v) && !terms.containsKey(keyOf(v.getEnglish()))) {
+                    Vocabulary copy = copyOf(v);
+                    copy.setEnglish(StringUtils.normalizeSpace(copy.getEnglish()));
+                    terms.put(keyOf(copy.getEnglish()), copy);
+                    added.add(copy);
+                }
+            }
+            if (added.isEmpty()) {
+                return;
+            }
+            dirty = true;
+            append(added);
+        }
+    }
+
+    public synchronized int size() {
+        return terms.size();
+    }
+
+    /**
+     * 获取匹配器快照，有新术语且距上次重建超过 rebuild-interval 时重建；重建期间其它请求继续使用旧快照
+     */
+    private Snapshot current() {
+        long interval = properties.getGlossary().getRebuildInterval().toMillis();
+        if (dirty && System.currentTimeMillis() - builtAt >= interval) {
+            synchronized (rebuildLock) {
+                if (dirty && System.currentTimeMillis() - builtAt >= interval) {
+                    List<Vocabulary> entries;
+                    synchronized (this) {
+                        entries = new ArrayList<>(terms.values());
+                        dirty = false;
+                    }
+                    snapshot = new Snapshot(entries);
+                    builtAt = System.currentTimeMillis();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 追加写入术语文件，调用方需持有锁
+     */
+    private void append(List<Vocabulary> added) {
+        String file = properties.getGlossary().getFile();
+        if (StringUtils.isBlank(file)) {
+            return;
+        }
+        Path path = Paths.get(file);
+        try {
+            if (path.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Vocabulary v : added) {
+                    writer.write(OBJECT_MAPPER.writeValueAsString(v));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            log.warn("写入术语表失败：{}，新术语只保存在内存中", path, e);
+        }
+    }
+
+    /**
+     * 用当前术语重写文件：先写临时文件再原子替换
+     */
+    private void rewrite(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Vocabulary v : terms.values()) {
+                writer.write(OBJECT_MAPPER.writeValueAsString(v));
+                writer.write('\n');
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("已压缩术语表文件：{}", file.toAbsolutePath());
+    }
+
+    private static boolean isValid(Vocabulary v) {
+        if (v == null || StringUtils.isAnyBlank(v.getEnglish(), v.getChinese())) {
+            return false;
+        }
+        String english = v.getEnglish().trim();
+        return english.length() >= 2 && english.length() <= MAX_TERM_LENGTH && TERM_PATTERN.matcher(english).matches();
+    }
+
+    private static String keyOf(String english) {
+        return StringUtils.normalizeSpace(english).toLowerCase(Locale.ROOT);
+    }
+
+    private static Vocabulary copyOf(Vocabulary source) {
+        Vocabulary copy = new Vocabulary();
+        copy.setEnglish(source.getEnglish());
+        copy.setChinese(source.getChinese());
+        copy.setExplanation(source.getExplanation());
+        return copy;
+    }
+
+    private static final class Snapshot {
+
+        private final List<Vocabulary> entries;
+
+        private final AhoCorasick matcher;
+
+        Snapshot(List<Vocabulary> entries) {
+            this.entries = entries;
+            List<String> patterns = new ArrayList<>(entries.size());
+            for (Vocabulary v : entries) {
+                patterns.add(v.getEnglish());
+            }
+            this.matcher = AhoCorasick.build(patterns);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.example.translate.memory;
+
+import com.example.translate.cache.TranslationCache;
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import com.example.translate.util.TextHashUtils;
+import com.example.translate.util.TextSegmenter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 句子级翻译记忆
+ * <p>
+ * 以归一化句子的SHA-256为键保存此前的句子译文与词汇，用户修改文档后重新提交时，未修改的句子直接复用，
+ * 只有新增或修改过的句子才需要调用DeepSeek。只有精确匹配的译文会被直接复用；几乎相同的句子按字符三元组
+ * 倒排索引查找（相似度为Dice系数，且要求数字完全一致），其译文只作为参考译文放进prompt——
+ * "is not available" 与 "is now available" 的相似度也很高，含义却相反，不能直接返回给用户。
+ * 按LRU限制条目数，所有访问都在 this 上同步。
+ */
+@Component
+public class TranslationMemory {
+
+    @Autowired
+    private TranslateProperties properties;
+
+    private final LinkedHashMap<String, MemoryEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * 字符三元组 -> 包含该三元组的条目，被淘汰或替换的条目在查询时跳过，累计过多时重建
+     */
+    private final Map<Long, List<MemoryEntry>> index = new HashMap<>();
+
+    /**
+     * 倒排表中已失效的条目数
+     */
+    private int staleInIndex;
+
+    private final AtomicLong exactHits = new AtomicLong();
+    /**
+     * 找到参考译文的次数
+     */
+    private final AtomicLong fuzzyHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public boolean isEnabled() {
+        return properties.getMemory().isEnabled();
+    }
+
+    /**
+     * 查询句子的译文，只做精确匹配（忽略大小写与空白差异）
+     *
+     * @param sentence 原文句子
+     * @param includeVocabulary 是否需要词汇，需要时只匹配带有词汇的条目
+     * @return 译文副本，未命中时返回null
+     */
+    public TranslateOutput lookup(String sentence, boolean includeVocabulary) {
+        String key = TextHashUtils.sha256Hex(normalize(sentence));
+        synchronized (this) {
+            MemoryEntry entry = entries.get(key);
+            if (entry != null && (entry.withVocabulary || !includeVocabulary)) {
+                exactHits.incrementAndGet();
+                return TranslationCache.copyOf(entry.output);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 查找几乎相同的句子，作为翻译时的参考译文
+     *
+     * @param sentences 原文句子
+     * @return 每个句子最相似的一条参考，未找到的句子不返回；未开启模糊匹配时返回空列表
+     */
+    public List<Reference> references(List<String> sentences) {
+        TranslateProperties.Memory config = properties.getMemory();
+        if (config.getFuzzyThreshold() <= 0 || sentences == null || sentences.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Reference> references = new ArrayList<>();
+        for (String sentence : sentences) {
+            String normalized = normalize(sentence);
+            if (normalized.length() < config.getFuzzyMinLength()) {
+                continue;
+            }
+            synchronized (this) {
+                MemoryEntry match = fuzzyMatch(normalized, config.getFuzzyThreshold());
+                if (match != null) {
+                    // 访问一次，维持LRU顺序
+                    entries.get(match.key);
+                    fuzzyHits.incrementAndGet();
+                    references.add(new Reference(match.source, match.output.getTranslation()));
+                }
+            }
+        }
+        return references;
+    }
+
+    /**
+     * 保存句子译文，只应保存DeepSeek判定为英文并正常翻译的结果
+     *
+     * @param sentence 原文句子
+     * @param output 译文
+     * @param includeVocabulary 译文是否按提取词汇的prompt生成
+     */
+    public void put(String sentence, TranslateOutput output, boolean includeVocabulary) {
+        if (output == null || !Boolean.TRUE.equals(output.getSuccess())) {
+            return;
+        }
+        String normalized = normalize(sentence);
+        MemoryEntry entry = new MemoryEntry(TextHashUtils.sha256Hex(normalized), sentence.trim(),
+                TranslationCache.copyOf(output), includeVocabulary, trigrams(normalized), numbers(normalized));
+        int maxEntries = properties.getMemory().getMaxEntries();
+        synchronized (this) {
+            MemoryEntry old = entries.get(entry.key);
+            if (old != null && old.withVocabulary && !includeVocabulary) {
+                // 不用不带词汇的译文覆盖带词汇的译文
+                return;
+            }
+            entries.put(entry.key, entry);
+            if (old != null) {
+                retire(old);
+            }
+            for (long trigram : entry.trigrams) {
+                index.computeIfAbsent(trigram, t -> new ArrayList<>()).add(entry);
+            }
+            Iterator<MemoryEntry> it = entries.values().iterator();
+            while (entries.size() > maxEntries && it.hasNext()) {
+                MemoryEntry eldest = it.next();
+                it.remove();
+                retire(eldest);
+            }
+            if (staleInIndex > entries.size()) {
+                rebuildIndex();
+            }
+        }
+    }
+
+    /**
+     * 把整段文本的译文按句拆开保存：原文与译文按行分段，段落数一致且段内句数一致的段落逐句保存，
+     * 对不齐的段落跳过；词汇按英文是否出现在句子中分配到各句
+     *
+     * @param text 原文
+     * @param output 整段译文
+     * @param includeVocabulary 译文是否按提取词汇的prompt生成
+     */
+    public void putAligned(String text, TranslateOutput output, boolean includeVocabulary) {
+        if (output == null || !Boolean.TRUE.equals(output.getSuccess())) {
+            return;
+        }
+        List<List<String>> sources = TextSegmenter.splitSentencesByParagraph(text);
+        String[] targets = TextSegmenter.splitLines(output.getTranslation());
+        if (sources.size() != targets.length) {
+            return;
+        }
+        for (int i = 0; i < targets.length; i++) {
+            List<String> sentences = sources.get(i);
+            List<String> translations = TextSegmenter.splitChineseSentences(targets[i]);
+            if (sentences.size() != translations.size()) {
+                continue;
+            }
+            for (int j = 0; j < sentences.size(); j++) {
+                put(sentences.get(j), sentenceOutput(sentences.get(j), translations.get(j), output.getVocabulary()),
+                        includeVocabulary);
+            }
+        }
+    }
+
+    private static TranslateOutput sentenceOutput(String sentence, String translation, List<Vocabulary> vocabulary) {
+        TranslateOutput output = new TranslateOutput();
+        output.setSuccess(Boolean.TRUE);
+        output.setTranslation(translation);
+        if (vocabulary != null) {
+            String lower = sentence.toLowerCase(Locale.ROOT);
+            List<Vocabulary> matched = new ArrayList<>();
+            for (Vocabulary v : vocabulary) {
+                if (v.getEnglish() != null && lower.contains(v.getEnglish().trim().toLowerCase(Locale.ROOT))) {
+                    matched.add(v);
+                }
+            }
+            output.setVocabulary(matched);
+        }
+        return output;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getExactHits() {
+        return exactHits.get();
+    }
+
+    public long getFuzzyHits() {
+        return fuzzyHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 查找Dice系数不低于阈值的最相似条目，调用方需持有锁
+     * <p>
+     * 前缀过滤：相似度达到阈值的条目至少与查询共享 minOverlap 个三元组，因此必然包含查询中
+     * 最罕见的 (n - minOverlap + 1) 个三元组之一，只需从这些三元组的倒排表中取候选，再逐个精确计算。
+     */
+    private MemoryEntry fuzzyMatch(String normalized, double threshold) {
+        long[] query = trigrams(normalized);
+        if (query.length == 0) {
+            return null;
+        }
+        String queryNumbers = numbers(normalized);
+        int minOverlap = (int) Math.ceil(threshold * query.length / (2 - threshold));
+        int prefixLength = query.length - minOverlap + 1;
+
+        Long[] byRarity = new Long[query.length];
+        for (int i = 0; i < query.length; i++) {
+            byRarity[i] = query[i];
+        }
+        Arrays.sort(byRarity, Comparator.comparingInt(t -> postings(t).size()));
+
+        Set<MemoryEntry> candidates = new HashSet<>();
+        for (int i = 0; i < prefixLength && i < byRarity.length; i++) {
+            candidates.addAll(postings(byRarity[i]));
+        }
+        MemoryEntry best = null;
+        double bestScore = threshold;
+        for (MemoryEntry candidate : candidates) {
+            if (candidate.retired || !candidate.numbers.equals(queryNumbers)) {
+                continue;
+            }
+            double score = 2D * overlap(query, candidate.trigrams) / (query.length + candidate.trigrams.length);
+            if (score >= bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private List<MemoryEntry> postings(long trigram) {
+        List<MemoryEntry> list = index.get(trigram);
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    private void retire(MemoryEntry entry) {
+        entry.retired = true;
+        staleInIndex++;
+    }
+
+    /**
+     * 倒排表中失效的条目过多时按现有条目重建
+     */
+    private void rebuildIndex() {
+        index.clear();
+        for (MemoryEntry entry : entries.values()) {
+            for (long trigram : entry.trigrams) {
+                index.computeIfAbsent(trigram, t -> new ArrayList<>()).add(entry);
+            }
+        }
+        staleInIndex = 0;
+    }
+
+    /**
+     * 句子归一化：合并空白并转为小写
+     */
+    static String normalize(String sentence) {
+        return TextHashUtils.normalize(sentence).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 去重并排序的字符三元组，三个字符打包为一个long
+     */
+    static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] result = new long[text.length() - 2];
+        for (int i = 0; i + 2 < text.length(); i++) {
+            result[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(result);
+        int unique = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[unique++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, unique);
+    }
+
+    /**
+     * 两个有序数组的交集大小
+     */
+    static int overlap(long[] a, long[] b) {
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 句子中的全部数字，模糊匹配要求数字完全一致，避免复用数值不同的译文
+     */
+    static String numbers(String text) {
+        StringBuilder sb = new StringBuilder();
+        boolean inNumber = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isDigit(c)) {
+                sb.append(c);
+                inNumber = true;
+            } else if (inNumber) {
+                sb.append(',');
+                inNumber = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 参考译文：此前翻译过的相似句子及其译文，含义可能与待翻译句子不同
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Reference {
+        private String source;
+        private String translation;
+    }
+
+    private static final class MemoryEntry {
+
+        private final String key;
+
+        private final String source;
+
+        private final TranslateOutput output;
+
+        private final boolean withVocabulary;
+
+        private final long[] trigrams;
+
+        private final String numbers;
+
+        private boolean retired;
+
+        MemoryEntry(String key, String source, TranslateOutput output, boolean withVocabulary, long[] trigrams,
+                    String numbers) {
+            this.key = key;
+            this.source = source;
+            this.output = output;
+            this.withVocabulary = withVocabulary;
+            this.trigrams = trigrams;
+            this.numbers = numbers;
+        }
+    }
+}
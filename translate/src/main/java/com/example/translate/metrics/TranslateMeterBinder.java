@@ -0,0 +1,48 @@
+package com.example.translate.metrics;
+
+import com.example.translate.cache.TranslationCache;
+import com.example.translate.memory.TranslationMemory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 翻译缓存与翻译记忆指标
+ */
+@Component
+public class TranslateMeterBinder implements MeterBinder {
+
+    @Autowired
+    private TranslationCache translationCache;
+
+    @Autowired
+    private TranslationMemory translationMemory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("translate.cache.size", translationCache, TranslationCache::size)
+                .description("内存缓存条目数").register(registry);
+        Gauge.builder("translate.cache.weight", translationCache, TranslationCache::weight)
+                .description("内存缓存占用（估算字节数）").baseUnit("bytes").register(registry);
+        FunctionCounter.builder("translate.cache.requests", translationCache, TranslationCache::getHits)
+                .description("缓存查询次数").tag("result", "hit").register(registry);
+        FunctionCounter.builder("translate.cache.requests", translationCache, TranslationCache::getMisses)
+                .description("缓存查询次数").tag("result", "miss").register(registry);
+        FunctionCounter.builder("translate.cache.disk.hits", translationCache, TranslationCache::getDiskHits)
+                .description("命中磁盘缓存的次数（已包含在hit中）").register(registry);
+        FunctionCounter.builder("translate.cache.evictions", translationCache, TranslationCache::getEvictions)
+                .description("缓存淘汰次数").register(registry);
+
+        Gauge.builder("translate.memory.size", translationMemory, TranslationMemory::size)
+                .description("翻译记忆中的句子数").register(registry);
+        FunctionCounter.builder("translate.memory.lookups", translationMemory, TranslationMemory::getExactHits)
+                .description("翻译记忆查询次数").tag("result", "exact").register(registry);
+        FunctionCounter.builder("translate.memory.lookups", translationMemory, TranslationMemory::getFuzzyHits)
+                .description("翻译记忆查询次数").tag("result", "fuzzy").register(registry);
+        FunctionCounter.builder("translate.memory.lookups", translationMemory, TranslationMemory::getMisses)
+                .description("翻译记忆查询次数").tag("result", "miss").register(registry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.translate.metrics;
+
+import com.example.translate.exception.ResultParseException;
+import com.example.translate.exception.UpstreamRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 翻译流程各阶段的耗时与结果统计
+ * <p>
+ * translate.stage：按 stage 区分的耗时直方图（prompt、llm、parse、render），
+ * translate.outcome：按 outcome 区分的结果计数（success、non_english、precheck_rejected、parse_error、upstream_error、
+ * rejected、render_error）。
+ */
+@Component
+public class TranslateMetrics {
+
+    public static final String STAGE_PROMPT = "prompt";
+    public static final String STAGE_LLM = "llm";
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_RENDER = "render";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_NON_ENGLISH = "non_english";
+    public static final String OUTCOME_PRECHECK_REJECTED = "precheck_rejected";
+    public static final String OUTCOME_PARSE_ERROR = "parse_error";
+    public static final String OUTCOME_UPSTREAM_ERROR = "upstream_error";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_RENDER_ERROR = "render_error";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一个同步阶段的耗时
+     */
+    public <T> T record(String stage, Supplier<T> supplier) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return supplier.get();
+        } finally {
+            sample.stop(timer(stage));
+        }
+    }
+
+    /**
+     * 开始计时，用于异步阶段，结束时调用 {@link #stop(Timer.Sample, String)}
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, String stage) {
+        sample.stop(timer(stage));
+    }
+
+    public void outcome(String outcome) {
+        counters.computeIfAbsent(outcome, o -> Counter.builder("translate.outcome")
+                .description("翻译结果计数")
+                .tag("outcome", o)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * 按异常类型记录失败原因
+     */
+    public void failure(Throwable e) {
+        if (e instanceof UpstreamRejectedException) {
+            outcome(OUTCOME_REJECTED);
+        } else if (e instanceof ResultParseException) {
+            outcome(OUTCOME_PARSE_ERROR);
+        } else {
+            outcome(OUTCOME_UPSTREAM_ERROR);
+        }
+    }
+
+    private Timer timer(String stage) {
+        return timers.computeIfAbsent(stage, s -> Timer.builder("translate.stage")
+                .description("翻译流程各阶段耗时")
+                .tag("stage", s)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.translate.model.Enum;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum JobStatus {
+    QUEUED("queued", "排队中"),
+    RUNNING("running", "执行中"),
+    DONE("done", "已完成"),
+    FAILED("failed", "失败");
+
+    private String code;
+    private String desc;
+
+    JobStatus(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED;
+    }
+}
@@ -3,15 +3,26 @@ package com.example.translate.model.Enum;
 import org.apache.commons.lang3.StringUtils;
 
 public enum OutputFormat {
-    JSON("json","json格式"),
-    WORD("word","word文档");
+    JSON("json","json格式", null, "application/json"),
+    WORD("word","word文档", "docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"),
+    BILINGUAL("bilingual","中英逐句对照word文档", "docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"),
+    HTML("html","html网页", "html", "text/html;charset=UTF-8"),
+    MARKDOWN("markdown","markdown文本", "md", "text/markdown;charset=UTF-8"),
+    XLSX("xlsx","excel双语对照表", "xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
 
     private String code;
     private String desc;
+    /**
+     * 生成文档的扩展名，json不生成文档
+     */
+    private String extension;
+    private String contentType;
 
-    OutputFormat(String code, String desc) {
+    OutputFormat(String code, String desc, String extension, String contentType) {
         this.code = code;
         this.desc = desc;
+        this.extension = extension;
+        this.contentType = contentType;
     }
 
     public String getCode() {
@@ -22,6 +33,14 @@ public enum OutputFormat {
         return desc;
     }
 
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
     public static OutputFormat getFormat(String code) {
         for (OutputFormat format : OutputFormat.values()) {
             if(StringUtils.equals(format.code, code)) {
@@ -30,4 +49,17 @@ public enum OutputFormat {
         }
         return null;
     }
+
+    /**
+     * 根据文件名的扩展名查找格式，不是生成的文档时返回null
+     */
+    public static OutputFormat fromFilename(String filename) {
+        String extension = StringUtils.substringAfterLast(filename, ".");
+        for (OutputFormat format : OutputFormat.values()) {
+            if(format.extension != null && format.extension.equalsIgnoreCase(extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
 }
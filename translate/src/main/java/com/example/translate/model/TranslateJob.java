@@ -0,0 +1,42 @@
+package com.example.translate.model;
+
+import com.example.translate.model.Enum.JobStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * 异步翻译任务
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TranslateJob {
+
+    @JsonProperty("job_id")
+    private String jobId;
+
+    private volatile JobStatus status;
+
+    @JsonProperty("created_at")
+    private long createdAt;
+
+    @JsonProperty("finished_at")
+    private volatile Long finishedAt;
+
+    private volatile TranslateOutput result;
+
+    private volatile String error;
+
+    @JsonProperty("callback_url")
+    private String callbackUrl;
+
+    @JsonIgnore
+    private TranslateInput input;
+
+    /**
+     * 提交任务的调用方，执行时用于统计用量
+     */
+    @JsonIgnore
+    private String clientId;
+}
@@ -0,0 +1,16 @@
+package com.example.translate.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 异步翻译任务的输入，在翻译参数之外可以指定完成后的回调地址
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class TranslateJobInput extends TranslateInput {
+
+    @JsonProperty("callback_url")
+    private String callbackUrl;
+}
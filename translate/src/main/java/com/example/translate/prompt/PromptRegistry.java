@@ -0,0 +1,327 @@
+package com.example.translate.prompt;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.memory.TranslationMemory;
+import com.example.translate.model.Vocabulary;
+import com.example.translate.util.TextHashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * prompt模板注册表
+ * <p>
+ * 启动时一次性加载 classpath:file/prompt-*.txt 下的全部模板，之后请求只读取内存中的不可变字符串；
+ * 配置了 translate.prompt.override-dir 时，该目录下的同名文件会覆盖classpath模板，并在文件变化时热加载。
+ */
+@Component
+@Slf4j
+public class PromptRegistry {
+
+    public static final String WITH_VOCABULARY = "prompt-with-vocabulary";
+
+    public static final String NO_VOCABULARY = "prompt-no-vocabulary";
+
+    public static final String BATCH_WITH_VOCABULARY = "prompt-batch-with-vocabulary";
+
+    public static final String BATCH_NO_VOCABULARY = "prompt-batch-no-vocabulary";
+
+    /**
+     * 术语表说明，其后逐行列出“英文 => 中文”
+     */
+    public static final String GLOSSARY = "prompt-glossary";
+
+    /**
+     * 参考译文说明，其后逐行列出“原文 => 译文”
+     */
+    public static final String REFERENCE = "prompt-reference";
+
+    private static final String CLASSPATH_PATTERN = "classpath:file/prompt-*.txt";
+
+    public static final String TEXT_PREFIX = "The text is:";
+
+    public static final String BATCH_PREFIX = "The texts are:";
+
+    @Autowired
+    private TranslateProperties properties;
+
+    /**
+     * 模板名（不含.txt后缀） -> 模板内容，整体替换保证读取时无需加锁
+     */
+    private volatile Map<String, String> templates = Collections.emptyMap();
+
+    /**
+     * 当前全部模板内容的摘要，模板变化后随之变化，用于区分不同模板下缓存的翻译结果
+     */
+    private volatile String fingerprint = "";
+
+    private volatile WatchService watchService;
+
+    @PostConstruct
+    public void init() throws IOException {
+        reload();
+        startWatcher();
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        WatchService ws = watchService;
+        watchService = null;
+        if (ws != null) {
+            ws.close();
+        }
+    }
+
+    /**
+     * 获取模板内容
+     *
+     * @param name 模板名，如 prompt-with-vocabulary
+     * @return 模板内容
+     */
+    public String getTemplate(String name) {
+        String template = templates.get(name);
+        if (template == null) {
+            throw new IllegalStateException("prompt模板不存在：" + name);
+        }
+        return template;
+    }
+
+    /**
+     * 当前模板的摘要，热加载修改了任一模板后返回新的值
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 根据是否提取词汇获取对应的翻译模板
+     */
+    public String getTranslateTemplate(boolean includeVocabulary) {
+        return getTemplate(includeVocabulary ? WITH_VOCABULARY : NO_VOCABULARY);
+    }
+
+    /**
+     * 组装发送给DeepSeek的消息：模板 + "The text is:" + 文本，只分配一次缓冲区
+     *
+     * @param template 模板内容
+     * @param text 待翻译文本
+     * @return 完整消息
+     */
+    public String buildMessage(String template, String text) {
+        return buildMessage(template, TEXT_PREFIX, text);
+    }
+
+    private String buildMessage(String template, String prefix, String text) {
+        String safeText = text == null ? "" : text;
+        return new StringBuilder(template.length() + prefix.length() + safeText.length())
+                .append(template)
+                .append(prefix)
+                .append(safeText)
+                .toString();
+    }
+
+    /**
+     * 组装翻译消息
+     */
+    public String buildTranslateMessage(boolean includeVocabulary, String text) {
+        return buildMessage(getTranslateTemplate(includeVocabulary), text);
+    }
+
+    /**
+     * 组装翻译消息，并在文本前注入命中的术语
+     *
+     * @param includeVocabulary 是否提取词汇
+     * @param text 待翻译文本
+     * @param glossary 文本中出现的已知术语，为空时与不带术语的消息相同
+     * @return 完整消息
+     */
+    public String buildTranslateMessage(boolean includeVocabulary, String text, List<Vocabulary> glossary) {
+        return buildMessage(getTranslateTemplate(includeVocabulary), glossary, TEXT_PREFIX, text);
+    }
+
+    /**
+     * 组装翻译消息，在文本前注入命中的术语和翻译记忆中相似句子的参考译文
+     *
+     * @param references 参考译文，为空时与只带术语的消息相同
+     */
+    public String buildTranslateMessage(boolean includeVocabulary, String text, List<Vocabulary> glossary,
+                                        List<TranslationMemory.Reference> references) {
+        if (references == null || references.isEmpty()) {
+            return buildTranslateMessage(includeVocabulary, text, glossary);
+        }
+        StringBuilder template = new StringBuilder(getTranslateTemplate(includeVocabulary))
+                .append(getTemplate(REFERENCE));
+        for (TranslationMemory.Reference reference : references) {
+            template.append(reference.getSource()).append(" => ").append(reference.getTranslation()).append('\n');
+        }
+        return buildMessage(template.toString(), glossary, TEXT_PREFIX, text);
+    }
+
+    /**
+     * 组装批量翻译消息
+     *
+     * @param includeVocabulary 是否提取词汇
+     * @param itemsJson 形如 [{"index":0,"text":"..."}] 的json数组
+     * @return 完整消息
+     */
+    public String buildBatchMessage(boolean includeVocabulary, String itemsJson) {
+        return buildBatchMessage(includeVocabulary, itemsJson, null);
+    }
+
+    /**
+     * 组装批量翻译消息，并在文本前注入命中的术语
+     */
+    public String buildBatchMessage(boolean includeVocabulary, String itemsJson, List<Vocabulary> glossary) {
+        return buildMessage(getTemplate(includeVocabulary ? BATCH_WITH_VOCABULARY : BATCH_NO_VOCABULARY),
+                glossary, BATCH_PREFIX, itemsJson);
+    }
+
+    private String buildMessage(String template, List<Vocabulary> glossary, String prefix, String text) {
+        if (glossary == null || glossary.isEmpty()) {
+            return buildMessage(template, prefix, text);
+        }
+        String header = getTemplate(GLOSSARY);
+        String safeText = text == null ? "" : text;
+        StringBuilder message = new StringBuilder(template.length() + header.length() + glossary.size() * 32
+                + prefix.length() + safeText.length());
+        message.append(template).append(header);
+        for (Vocabulary v : glossary) {
+            message.append(v.getEnglish()).append(" => ").append(v.getChinese()).append('\n');
+        }
+        return message.append(prefix).append(safeText).toString();
+    }
+
+    /**
+     * 重新加载全部模板：先加载classpath模板，再用覆盖目录中的同名文件覆盖
+     */
+    public synchronized void reload() throws IOException {
+        Map<String, String> loaded = new HashMap<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(CLASSPATH_PATTERN);
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                loaded.put(templateName(filename), read(in));
+            }
+        }
+
+        Path overrideDir = overrideDir();
+        if (overrideDir != null && Files.isDirectory(overrideDir)) {
+            try (Stream<Path> files = Files.list(overrideDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    String filename = file.getFileName().toString();
+                    if (isTemplateFile(filename) && Files.isRegularFile(file)) {
+                        try (InputStream in = Files.newInputStream(file)) {
+                            loaded.put(templateName(filename), read(in));
+                        }
+                    }
+                }
+            }
+        }
+        templates = Collections.unmodifiableMap(loaded);
+        fingerprint = fingerprintOf(loaded);
+        log.info("已加载prompt模板：{}，摘要：{}", loaded.keySet(), fingerprint);
+    }
+
+    private Path overrideDir() {
+        String dir = properties.getPrompt().getOverrideDir();
+        return StringUtils.isBlank(dir) ? null : Paths.get(dir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * 监听覆盖目录，模板文件变化时重新加载
+     */
+    private void startWatcher() throws IOException {
+        Path dir = overrideDir();
+        if (dir == null || !properties.getPrompt().isHotReload()) {
+            return;
+        }
+        if (!Files.isDirectory(dir)) {
+            log.warn("prompt覆盖目录不存在，不启用热加载：{}", dir);
+            return;
+        }
+        WatchService ws = FileSystems.getDefault().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watchService = ws;
+
+        Thread watcher = new Thread(() -> watch(ws), "prompt-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService ws) {
+        while (watchService == ws) {
+            WatchKey key;
+            try {
+                key = ws.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                Object context = event.context();
+                if (context != null && isTemplateFile(context.toString())) {
+                    changed = true;
+                }
+            }
+            key.reset();
+            if (changed) {
+                try {
+                    reload();
+                } catch (Exception e) {
+                    log.error("热加载prompt模板失败，继续使用旧模板", e);
+                }
+            }
+        }
+    }
+
+    private static String fingerprintOf(Map<String, String> templates) {
+        StringBuilder all = new StringBuilder();
+        for (Map.Entry<String, String> entry : new TreeMap<>(templates).entrySet()) {
+            all.append(entry.getKey()).append('\0').append(entry.getValue()).append('\0');
+        }
+        return TextHashUtils.sha256Hex(all.toString()).substring(0, 16);
+    }
+
+    private static boolean isTemplateFile(String filename) {
+        return filename.startsWith("prompt-") && filename.endsWith(".txt");
+    }
+
+    private static String templateName(String filename) {
+        return filename.substring(0, filename.length() - ".txt".length());
+    }
+
+    /**
+     * 按行读取，每行以\n结尾，与历史逻辑保持一致
+     */
+    private static String read(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        StringBuilder content = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            content.append(line).append("\n");
+        }
+        return content.toString().intern();
+    }
+}
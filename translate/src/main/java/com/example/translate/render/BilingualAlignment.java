@@ -0,0 +1,69 @@
+package com.example.translate.render;
+
+import com.example.translate.util.TextSegmenter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 原文与译文对齐，用于生成双语对照文档
+ */
+final class BilingualAlignment {
+
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+
+    private BilingualAlignment() {
+    }
+
+    /**
+     * 按空行分段，原文与译文段落数相同时逐段对应，否则整体作为一段
+     *
+     * @return 每个元素为 {原文, 译文}
+     */
+    static List<String[]> paragraphs(String source, String translation) {
+        String safeSource = StringUtils.defaultString(source).trim();
+        String safeTranslation = StringUtils.defaultString(translation).trim();
+        String[] sources = PARAGRAPH_BREAK.split(safeSource);
+        String[] translations = PARAGRAPH_BREAK.split(safeTranslation);
+        if (sources.length <= 1 || sources.length != translations.length) {
+            return Collections.singletonList(new String[]{safeSource, safeTranslation});
+        }
+        List<String[]> pairs = new ArrayList<>(sources.length);
+        for (int i = 0; i < sources.length; i++) {
+            pairs.add(new String[]{sources[i].trim(), translations[i].trim()});
+        }
+        return pairs;
+    }
+
+    /**
+     * 按句对齐：原文按 {@link TextSegmenter#splitSentences(String)} 切分、译文按 {@link TextSegmenter#splitChineseSentences(String)} 切分，
+     * 按行分段后段落数一致时逐段处理，段内句数一致时逐句对应，否则该段整体作为一行；
+     * 段落数不一致时整体作为一行
+     *
+     * @return 每个元素为 {原文, 译文}
+     */
+    static List<String[]> sentences(String source, String translation) {
+        List<List<String>> sourceParagraphs = TextSegmenter.splitSentencesByParagraph(source);
+        String[] targetParagraphs = TextSegmenter.splitLines(translation);
+        if (sourceParagraphs.size() != targetParagraphs.length) {
+            return paragraphs(source, translation);
+        }
+
+        List<String[]> pairs = new ArrayList<>();
+        for (int i = 0; i < targetParagraphs.length; i++) {
+            List<String> sources = sourceParagraphs.get(i);
+            List<String> targets = TextSegmenter.splitChineseSentences(targetParagraphs[i]);
+            if (sources.size() == targets.size()) {
+                for (int j = 0; j < sources.size(); j++) {
+                    pairs.add(new String[]{sources.get(j), targets.get(j)});
+                }
+            } else {
+                pairs.add(new String[]{String.join(" ", sources), targetParagraphs[i]});
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.translate.render;
+
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.word.DynamicTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * 中英逐句对照的word文档：使用同一模板，原文占位符处替换为“原文 / 译文”逐句对齐的表格，译文占位符留空，词汇表不变
+ */
+@Component
+public class BilingualWordRenderer implements OutputRenderer {
+
+    private static final String TABLE_PLACEHOLDER = "input";
+
+    @Autowired
+    private WordRenderer wordRenderer;
+
+    @Override
+    public OutputFormat getFormat() {
+        return OutputFormat.BILINGUAL;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return wordRenderer.getFingerprint() + "/bilingual";
+    }
+
+    @Override
+    public void render(TranslateInput input, TranslateOutput output, OutputStream out) throws IOException {
+        List<String[]> pairs = BilingualAlignment.sentences(input.getText(), output.getTranslation());
+        List<List<String>> rows = new ArrayList<>(pairs.size());
+        for (String[] pair : pairs) {
+            rows.add(Arrays.asList(pair));
+        }
+        DynamicTable bilingual = new DynamicTable(TABLE_PLACEHOLDER, Arrays.asList("原文", "译文"), rows);
+
+        Map<String, String> data = new HashMap<>();
+        data.put("output", "");
+        wordRenderer.render(data, Arrays.asList(bilingual, wordRenderer.createVocabularyTable(output)), out);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.translate.render;
+
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * html网页：原文与译文按段落左右对照，下方为词汇表。直接写入输出流，不构建DOM
+ */
+@Component
+public class HtmlRenderer implements OutputRenderer {
+
+    private static final String HEAD = "<!DOCTYPE html>\n<html lang=\"zh-CN\">\n<head>\n<meta charset=\"UTF-8\">\n"
+            + "<title>翻译结果</title>\n<style>\n"
+            + "body{font-family:sans-serif;margin:2em auto;max-width:1200px;line-height:1.6}\n"
+            + "table{border-collapse:collapse;width:100%;margin-bottom:2em}\n"
+            + "th,td{border:1px solid #ccc;padding:6px 10px;vertical-align:top;text-align:left}\n"
+            + "th{background:#f5f5f5}\n"
+            + "</style>\n</head>\n<body>\n";
+
+    @Override
+    public OutputFormat getFormat() {
+        return OutputFormat.HTML;
+    }
+
+    @Override
+    public void render(TranslateInput input, TranslateOutput output, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEAD);
+        writer.write("<h2>原文 / 译文</h2>\n<table>\n<tr><th>原文</th><th>译文</th></tr>\n");
+        for (String[] pair : BilingualAlignment.paragraphs(input.getText(), output.getTranslation())) {
+            writer.write("<tr><td>");
+            escape(writer, pair[0]);
+            writer.write("</td><td>");
+            escape(writer, pair[1]);
+            writer.write("</td></tr>\n");
+        }
+        writer.write("</table>\n");
+        if (output.getVocabulary() != null && !output.getVocabulary().isEmpty()) {
+            writer.write("<h2>词汇</h2>\n<table>\n<tr><th>单词</th><th>中文</th><th>解释</th></tr>\n");
+            for (Vocabulary v : output.getVocabulary()) {
+                writer.write("<tr><td>");
+                escape(writer, v.getEnglish());
+                writer.write("</td><td>");
+                escape(writer, v.getChinese());
+                writer.write("</td><td>");
+                escape(writer, v.getExplanation());
+                writer.write("</td></tr>\n");
+            }
+            writer.write("</table>\n");
+        }
+        writer.write("</body>\n</html>\n");
+        writer.flush();
+    }
+
+    /**
+     * 转义html特殊字符，换行转为&lt;br&gt;
+     */
+    private static void escape(Writer writer, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                case '\'':
+                    writer.write("&#39;");
+                    break;
+                case '\r':
+                    break;
+                case '\n':
+                    writer.write("<br>");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.translate.render;
+
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * markdown文本：每段原文以引用块列出，其后紧跟译文，最后是词汇表
+ * <p>
+ * 原文与译文中的markdown特殊字符会被转义，按原样显示，不会被解析为标题、列表、代码、链接或html。
+ */
+@Component
+public class MarkdownRenderer implements OutputRenderer {
+
+    /**
+     * 需要转义的行内特殊字符
+     */
+    private static final String INLINE_SPECIAL = "\\`*_[]<>|~&";
+
+    /**
+     * 出现在行首时需要转义的块级标记
+     */
+    private static final String LINE_START_SPECIAL = "#>-+=";
+
+    @Override
+    public OutputFormat getFormat() {
+        return OutputFormat.MARKDOWN;
+    }
+
+    @Override
+    public void render(TranslateInput input, TranslateOutput output, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("# 翻译结果\n\n");
+        for (String[] pair : BilingualAlignment.paragraphs(input.getText(), output.getTranslation())) {
+            writer.write("> ");
+            writer.write(escape(pair[0]).replace("\n", "\n> "));
+            writer.write("\n\n");
+            writer.write(escape(pair[1]));
+            writer.write("\n\n");
+        }
+        if (output.getVocabulary() != null && !output.getVocabulary().isEmpty()) {
+            writer.write("## 词汇\n\n| 单词 | 中文 | 解释 |\n| --- | --- | --- |\n");
+            for (Vocabulary v : output.getVocabulary()) {
+                writer.write("| ");
+                cell(writer, v.getEnglish());
+                writer.write(" | ");
+                cell(writer, v.getChinese());
+                writer.write(" | ");
+                cell(writer, v.getExplanation());
+                writer.write(" |\n");
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * 表格单元格：转义特殊字符，换行替换为空格
+     */
+    private static void cell(Writer writer, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        writer.write(escape(text.replace('\r', ' ').replace('\n', ' ')));
+    }
+
+    /**
+     * 转义markdown特殊字符：行内字符加反斜杠，行首的块级标记与有序列表序号后的标点加反斜杠，
+     * 行首缩进去掉以免被解析为代码块
+     */
+    static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        boolean lineStart = true;
+        boolean leadingDigits = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\r') {
+                continue;
+            }
+            if (c == '\n') {
+                sb.append(c);
+                lineStart = true;
+                leadingDigits = false;
+                continue;
+            }
+            if (lineStart && (c == ' ' || c == '\t')) {
+                continue;
+            }
+            if (INLINE_SPECIAL.indexOf(c) >= 0
+                    || (lineStart && LINE_START_SPECIAL.indexOf(c) >= 0)
+                    || (leadingDigits && (c == '.' || c == ')'))) {
+                sb.append('\\');
+            }
+            sb.append(c);
+            leadingDigits = (lineStart || leadingDigits) && c >= '0' && c <= '9';
+            lineStart = false;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.translate.render;
+
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 翻译结果文档渲染
+ * <p>
+ * 每种需要生成文档的 {@link OutputFormat} 对应一个实现，注册为Spring Bean后由 {@link OutputRendererRegistry} 按格式选择。
+ */
+public interface OutputRenderer {
+
+    /**
+     * 负责的输出格式
+     */
+    OutputFormat getFormat();
+
+    /**
+     * 参与文档id计算的渲染版本标识，模板或渲染方式变化时应随之变化，避免复用旧文档
+     */
+    default String getFingerprint() {
+        return getClass().getName();
+    }
+
+    /**
+     * 把翻译结果渲染为文档写入输出流
+     *
+     * @param input 翻译输入
+     * @param output 成功的翻译结果
+     * @param out 输出流，方法内不会关闭
+     */
+    void render(TranslateInput input, TranslateOutput output, OutputStream out) throws IOException;
+}
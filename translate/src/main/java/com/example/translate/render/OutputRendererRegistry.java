@@ -0,0 +1,36 @@
+package com.example.translate.render;
+
+import com.example.translate.model.Enum.OutputFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按输出格式选择文档渲染器
+ */
+@Component
+public class OutputRendererRegistry {
+
+    private final Map<OutputFormat, OutputRenderer> renderers = new EnumMap<>(OutputFormat.class);
+
+    @Autowired
+    public OutputRendererRegistry(List<OutputRenderer> renderers) {
+        for (OutputRenderer renderer : renderers) {
+            OutputRenderer existing = this.renderers.put(renderer.getFormat(), renderer);
+            if (existing != null) {
+                throw new IllegalStateException("输出格式" + renderer.getFormat().getCode() + "重复注册了渲染器："
+                        + existing.getClass().getName() + "、" + renderer.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * @return 该格式不生成文档（如json）时返回null
+     */
+    public OutputRenderer get(OutputFormat format) {
+        return format == null ? null : renderers.get(format);
+    }
+}
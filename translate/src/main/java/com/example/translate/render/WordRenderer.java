@@ -0,0 +1,113 @@
+package com.example.translate.render;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import com.example.translate.model.word.DynamicTable;
+import com.example.translate.model.word.TableStyle;
+import com.example.translate.util.AdvancedWordGenerator;
+import com.example.translate.util.CompiledWordTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * word文档：按模板替换原文、译文占位符并生成词汇表
+ */
+@Component
+@Slf4j
+public class WordRenderer implements OutputRenderer {
+
+    @Autowired
+    private TranslateProperties properties;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    /**
+     * 启动时预编译的Word模板，未启用预编译时为null
+     */
+    private CompiledWordTemplate wordTemplate;
+
+    @PostConstruct
+    public void init() throws IOException {
+        TranslateProperties.Word config = properties.getWord();
+        if (config.isCompiled()) {
+            wordTemplate = CompiledWordTemplate.compile(
+                    resourceLoader.getResource(config.getTemplate()).getInputStream());
+            log.info("已预编译Word模板：{}", config.getTemplate());
+        }
+    }
+
+    @Override
+    public OutputFormat getFormat() {
+        return OutputFormat.WORD;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return wordTemplate != null ? wordTemplate.getFingerprint() : properties.getWord().getTemplate();
+    }
+
+    @Override
+    public void render(TranslateInput input, TranslateOutput output, OutputStream out) throws IOException {
+        render(wordData(input, output), Collections.singletonList(createVocabularyTable(output)), out);
+    }
+
+    /**
+     * 按模板生成文档：替换文本占位符，并把表格占位符所在段落替换为表格
+     */
+    void render(Map<String, String> data, List<DynamicTable> dynamicTables, OutputStream out) throws IOException {
+        if (wordTemplate != null) {
+            wordTemplate.render(out, data, dynamicTables);
+            return;
+        }
+        AdvancedWordGenerator.generateWord(
+                resourceLoader.getResource(properties.getWord().getTemplate()).getInputStream(),
+                out,
+                data,
+                dynamicTables
+        );
+    }
+
+    private static Map<String, String> wordData(TranslateInput translateInput, TranslateOutput translateOutput) {
+        Map<String, String> data = new HashMap<>();
+        data.put("input", translateInput.getText());
+        data.put("output", translateOutput.getTranslation());
+        return data;
+    }
+
+    DynamicTable createVocabularyTable(TranslateOutput translateOutput) {
+
+        List<String> headers = Arrays.asList("单词", "中文", "解释");
+        List<List<String>> rows = new ArrayList<>();
+        if (translateOutput != null && translateOutput.getVocabulary() != null) {
+            for (Vocabulary v : translateOutput.getVocabulary()) {
+                rows.add(Arrays.asList(
+                        StringUtils.defaultString(v.getEnglish()),
+                        StringUtils.defaultString(v.getChinese()),
+                        StringUtils.defaultString(v.getExplanation())
+                ));
+            }
+        }
+        DynamicTable table = new DynamicTable("vocabulary", headers, rows);
+
+        // 设置表格样式
+        TableStyle style = table.getStyle();
+        style.setWidth("90%");
+        style.setAutoLayout(true);
+
+        table.setStyle(style);
+
+        return table;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.translate.render;
+
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * excel双语对照表：第一个工作表按段落对照原文与译文，第二个工作表为词汇表
+ * <p>
+ * 使用SXSSF流式写入，内存中只保留最近的少量行，超出的行写入临时文件，词汇表再大内存占用也有上限。
+ */
+@Component
+public class XlsxRenderer implements OutputRenderer {
+
+    /**
+     * 内存中保留的行数
+     */
+    private static final int WINDOW_SIZE = 100;
+
+    /**
+     * excel单元格最多容纳的字符数，更长的内容顺延到下一行
+     */
+    private static final int MAX_CELL_LENGTH = 32767;
+
+    @Override
+    public OutputFormat getFormat() {
+        return OutputFormat.XLSX;
+    }
+
+    @Override
+    public void render(TranslateInput input, TranslateOutput output, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(WINDOW_SIZE);
+        try {
+            CellStyle header = headerStyle(workbook);
+            CellStyle wrap = workbook.createCellStyle();
+            wrap.setWrapText(true);
+            wrap.setVerticalAlignment(VerticalAlignment.TOP);
+
+            SXSSFSheet bilingual = workbook.createSheet("双语对照");
+            bilingual.setColumnWidth(0, 60 * 256);
+            bilingual.setColumnWidth(1, 60 * 256);
+            writeRow(bilingual, 0, header, "原文", "译文");
+            int rowIndex = 1;
+            for (String[] pair : BilingualAlignment.paragraphs(input.getText(), output.getTranslation())) {
+                rowIndex = writeRow(bilingual, rowIndex, wrap, pair);
+            }
+
+            SXSSFSheet vocabulary = workbook.createSheet("词汇");
+            vocabulary.setColumnWidth(0, 25 * 256);
+            vocabulary.setColumnWidth(1, 25 * 256);
+            vocabulary.setColumnWidth(2, 80 * 256);
+            writeRow(vocabulary, 0, header, "单词", "中文", "解释");
+            if (output.getVocabulary() != null) {
+                rowIndex = 1;
+                for (Vocabulary v : output.getVocabulary()) {
+                    rowIndex = writeRow(vocabulary, rowIndex, wrap, v.getEnglish(), v.getChinese(), v.getExplanation());
+                }
+            }
+            workbook.write(out);
+        } finally {
+            // 删除SXSSF写出行时使用的临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static CellStyle headerStyle(Workbook workbook) {
+        Font font = workbook.createFont();
+        font.setBold(true);
+        CellStyle style = workbook.createCellStyle();
+        style.setFont(font);
+        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        return style;
+    }
+
+    /**
+     * 写入一行，超出单元格长度上限的内容写入后续行
+     *
+     * @return 下一个可用的行号
+     */
+    private static int writeRow(Sheet sheet, int rowIndex, CellStyle style, String... values) {
+        int offset = 0;
+        boolean more = true;
+        while (more) {
+            more = false;
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                Cell cell = row.createCell(i);
+                cell.setCellStyle(style);
+                String value = values[i];
+                if (value != null && offset < value.length()) {
+                    int end = Math.min(value.length(), offset + MAX_CELL_LENGTH);
+                    cell.setCellValue(value.substring(offset, end));
+                    more |= end < value.length();
+                }
+            }
+            offset += MAX_CELL_LENGTH;
+        }
+        return rowIndex;
+    }
+}
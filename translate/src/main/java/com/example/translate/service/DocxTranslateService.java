@@ -0,0 +1,15 @@
+package com.example.translate.service;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface DocxTranslateService {
+    /**
+     * 翻译word文档：正文、表格（包括嵌套表格）、页眉页脚中的段落分批并行翻译，译文写回原段落并保留段落与首个run的格式
+     * @param in 上传的docx文档
+     * @return 翻译后的文档，调用方负责写出并关闭
+     */
+    XWPFDocument translate(InputStream in) throws IOException;
+}
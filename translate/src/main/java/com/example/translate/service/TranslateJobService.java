@@ -0,0 +1,22 @@
+package com.example.translate.service;
+
+import com.example.translate.model.TranslateJob;
+import com.example.translate.model.TranslateJobInput;
+
+public interface TranslateJobService {
+    /**
+     * 提交异步翻译任务，立即返回任务信息
+     * <p>
+     * 回调地址不合法或指向内网地址时抛出 IllegalArgumentException
+     * @param input
+     * @return
+     */
+    TranslateJob submit(TranslateJobInput input);
+
+    /**
+     * 查询任务
+     * @param jobId
+     * @return 任务不存在或已过期时返回null
+     */
+    TranslateJob get(String jobId);
+}
@@ -2,6 +2,10 @@ package com.example.translate.service;
 
 import com.example.translate.model.TranslateInput;
 import com.example.translate.model.TranslateOutput;
+import com.example.translate.thirdpart.StreamHandle;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface TranslateService {
     /**
@@ -10,4 +14,20 @@ public interface TranslateService {
      * @return
      */
     TranslateOutput translate(TranslateInput input) ;
+
+    /**
+     * 流式翻译，翻译文本的增量通过 onDelta 回调，结束时通过 onComplete 回调完整结果
+     * @param input
+     * @param onDelta 翻译文本增量
+     * @param onComplete 完整结果（包括失败结果）
+     * @return 取消句柄，客户端断开或超时后取消，停止上游生成
+     */
+    StreamHandle translateStream(TranslateInput input, Consumer<String> onDelta, Consumer<TranslateOutput> onComplete);
+
+    /**
+     * 批量翻译，多个短文本打包到一次DeepSeek请求中
+     * @param inputs 已校验的翻译参数
+     * @return 与输入顺序一致的翻译结果
+     */
+    List<TranslateOutput> translateBatch(List<TranslateInput> inputs);
 }
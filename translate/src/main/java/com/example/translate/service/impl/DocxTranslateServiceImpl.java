@@ -0,0 +1,118 @@
+package com.example.translate.service.impl;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.TranslateException;
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.service.DocxTranslateService;
+import com.example.translate.service.TranslateService;
+import com.example.translate.util.AdvancedWordGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.xwpf.usermodel.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.regex.Pattern;
+
+@Service
+@Slf4j
+public class DocxTranslateServiceImpl implements DocxTranslateService {
+
+    /**
+     * 不含英文字母的段落（如纯数字、符号）不需要翻译
+     */
+    private static final Pattern HAS_LETTER = Pattern.compile("[A-Za-z]");
+
+    @Autowired
+    private TranslateService translateService;
+
+    @Autowired
+    private TranslateProperties properties;
+
+    @Override
+    public XWPFDocument translate(InputStream in) throws IOException {
+        XWPFDocument document = new XWPFDocument(in);
+        try {
+            List<XWPFParagraph> paragraphs = new ArrayList<>();
+            collect(document.getBodyElements(), paragraphs);
+            for (XWPFHeader header : document.getHeaderList()) {
+                collect(header.getBodyElements(), paragraphs);
+            }
+            for (XWPFFooter footer : document.getFooterList()) {
+                collect(footer.getBodyElements(), paragraphs);
+            }
+
+            // 按窗口分批提交，每批内的段落由批量翻译打包并行处理，内存中只保留一批的输入与结果
+            int window = properties.getDocx().getWindowSize();
+            int translated = 0;
+            String firstError = null;
+            for (int from = 0; from < paragraphs.size(); from += window) {
+                List<XWPFParagraph> batch = paragraphs.subList(from, Math.min(paragraphs.size(), from + window));
+                // 相同文本（如重复的标题、表头）只翻译一次
+                Map<String, List<XWPFParagraph>> byText = new LinkedHashMap<>();
+                for (XWPFParagraph paragraph : batch) {
+                    byText.computeIfAbsent(AdvancedWordGenerator.translatableText(paragraph).trim(),
+                            t -> new ArrayList<>()).add(paragraph);
+                }
+                List<TranslateInput> inputs = new ArrayList<>(byText.size());
+                for (String text : byText.keySet()) {
+                    TranslateInput input = new TranslateInput();
+                    input.setText(text);
+                    input.setOutputFormat(OutputFormat.JSON.getCode());
+                    input.setIncludeVocabulary("false");
+                    inputs.add(input);
+                }
+                List<TranslateOutput> outputs = translateService.translateBatch(inputs);
+                for (int i = 0; i < inputs.size(); i++) {
+                    TranslateOutput output = outputs.get(i);
+                    if (!Boolean.TRUE.equals(output.getSuccess())) {
+                        // 翻译失败的段落保留原文
+                        if (firstError == null) {
+                            firstError = output.getTranslation();
+                        }
+                        continue;
+                    }
+                    for (XWPFParagraph paragraph : byText.get(inputs.get(i).getText())) {
+                        AdvancedWordGenerator.replaceParagraphText(paragraph, output.getTranslation());
+                        translated++;
+                    }
+                }
+            }
+            if (translated == 0 && firstError != null) {
+                throw new TranslateException(firstError);
+            }
+            log.info("文档翻译完成，共{}段，已翻译{}段", paragraphs.size(), translated);
+            return document;
+        } catch (RuntimeException e) {
+            document.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 收集需要翻译的段落，表格单元格中的内容（包括嵌套表格）按文档顺序展开；
+     * 含域或超链接的段落整段保留原文，见 {@link AdvancedWordGenerator#translatableText(XWPFParagraph)}
+     */
+    private static void collect(List<IBodyElement> elements, List<XWPFParagraph> paragraphs) {
+        for (IBodyElement element : elements) {
+            if (element instanceof XWPFParagraph) {
+                XWPFParagraph paragraph = (XWPFParagraph) element;
+                String text = AdvancedWordGenerator.translatableText(paragraph);
+                if (StringUtils.isNotBlank(text) && HAS_LETTER.matcher(text).find()) {
+                    paragraphs.add(paragraph);
+                }
+            } else if (element instanceof XWPFTable) {
+                for (XWPFTableRow row : ((XWPFTable) element).getRows()) {
+                    for (XWPFTableCell cell : row.getTableCells()) {
+                        collect(cell.getBodyElements(), paragraphs);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.translate.service.impl;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.TranslateException;
+import com.example.translate.model.Enum.JobStatus;
+import com.example.translate.model.TranslateJob;
+import com.example.translate.model.TranslateJobInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.service.TranslateJobService;
+import com.example.translate.service.TranslateService;
+import com.example.translate.usage.ClientContext;
+import com.example.translate.util.CallbackUrls;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+@Service
+@Slf4j
+public class TranslateJobServiceImpl implements TranslateJobService {
+
+    @Autowired
+    private TranslateService translateService;
+
+    @Autowired
+    private TranslateProperties properties;
+
+    @Autowired
+    private RestTemplateBuilder restTemplateBuilder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, TranslateJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 任务专用的有界线程池，队列满时拒绝新任务
+     */
+    private ThreadPoolExecutor jobExecutor;
+
+    private RestTemplate callbackTemplate;
+
+    @PostConstruct
+    public void init() {
+        TranslateProperties.Job config = properties.getJob();
+        jobExecutor = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(),
+                60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                new CustomizableThreadFactory("translate-job-"), new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("translate.job.queue.size", jobExecutor, e -> e.getQueue().size())
+                .description("排队中的异步翻译任务数").register(meterRegistry);
+        Gauge.builder("translate.job.active", jobExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("执行中的异步翻译任务数").register(meterRegistry);
+        callbackTemplate = restTemplateBuilder
+                .setConnectTimeout(config.getCallbackTimeout())
+                .setReadTimeout(config.getCallbackTimeout())
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobExecutor.shutdown();
+    }
+
+    @Override
+    public TranslateJob submit(TranslateJobInput input) {
+        if (input.getCallbackUrl() != null) {
+            CallbackUrls.validate(input.getCallbackUrl(), properties.getJob().getCallbackAllowedHosts());
+        }
+        TranslateJob job = new TranslateJob();
+        job.setJobId(UUID.randomUUID().toString().replace("-", ""));
+        job.setStatus(JobStatus.QUEUED);
+        job.setCreatedAt(System.currentTimeMillis());
+        job.setCallbackUrl(input.getCallbackUrl());
+        job.setInput(input);
+        job.setClientId(ClientContext.current());
+
+        jobs.put(job.getJobId(), job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw new TranslateException("翻译任务队列已满，请稍后重试", e);
+        }
+        return job;
+    }
+
+    @Override
+    public TranslateJob get(String jobId) {
+        return jobId == null ? null : jobs.get(jobId);
+    }
+
+    private void run(TranslateJob job) {
+        job.setStatus(JobStatus.RUNNING);
+        ClientContext.set(job.getClientId());
+        // 结束时间和结果要先于状态写入，轮询方看到DONE/FAILED时能读到完整的任务信息
+        try {
+            TranslateOutput output = translateService.translate(job.getInput());
+            // 翻译服务把上游异常、预检拒绝与渲染失败都作为success=false的结果返回，不会抛出异常
+            if (Boolean.TRUE.equals(output.getSuccess())) {
+                job.setResult(output);
+                job.setFinishedAt(System.currentTimeMillis());
+                job.setStatus(JobStatus.DONE);
+            } else {
+                log.warn("翻译任务失败，jobId：{}，原因：{}", job.getJobId(), output.getTranslation());
+                job.setError(output.getTranslation());
+                job.setFinishedAt(System.currentTimeMillis());
+                job.setStatus(JobStatus.FAILED);
+            }
+        } catch (Exception e) {
+            log.error("执行翻译任务时出现异常，jobId：{}", job.getJobId(), e);
+            job.setError(e.getMessage());
+            job.setFinishedAt(System.currentTimeMillis());
+            job.setStatus(JobStatus.FAILED);
+        } finally {
+            // 任务完成后不再需要保留原文
+            job.setInput(null);
+            ClientContext.clear();
+        }
+        callback(job);
+    }
+
+    /**
+     * 任务完成后把任务信息POST到回调地址，回调失败只记录日志
+     * <p>
+     * 发送前重新校验地址，避免提交后域名被改为解析到内网地址
+     */
+    private void callback(TranslateJob job) {
+        String url = job.getCallbackUrl();
+        if (StringUtils.isBlank(url)) {
+            return;
+        }
+        try {
+            CallbackUrls.validate(url, properties.getJob().getCallbackAllowedHosts());
+            callbackTemplate.postForEntity(url, job, Void.class);
+        } catch (Exception e) {
+            log.warn("翻译任务回调失败，jobId：{}，url：{}", job.getJobId(), url, e);
+        }
+    }
+
+    /**
+     * 定期清理已结束且超过保留时间的任务
+     */
+    @Scheduled(fixedDelayString = "${translate.job.sweep-interval:60000}")
+    public void sweep() {
+        long expireBefore = System.currentTimeMillis() - properties.getJob().getRetention().toMillis();
+        Iterator<TranslateJob> it = jobs.values().iterator();
+        while (it.hasNext()) {
+            TranslateJob job = it.next();
+            if (job.getStatus().isFinished() && job.getFinishedAt() != null && job.getFinishedAt() < expireBefore) {
+                it.remove();
+            }
+        }
+    }
+
+    public int getQueueSize() {
+        return jobExecutor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return jobExecutor.getActiveCount();
+    }
+}
@@ -1,190 +1,815 @@
 package com.example.translate.service.impl;
 
+import com.example.translate.cache.TranslationCache;
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.TranslateException;
+import com.example.translate.glossary.Glossary;
+import com.example.translate.memory.TranslationMemory;
+import com.example.translate.metrics.TranslateMetrics;
 import com.example.translate.model.Enum.OutputFormat;
 import com.example.translate.model.TranslateInput;
 import com.example.translate.model.TranslateOutput;
 import com.example.translate.model.Vocabulary;
-import com.example.translate.model.word.DynamicTable;
-import com.example.translate.model.word.TableStyle;
+import com.example.translate.prompt.PromptRegistry;
+import com.example.translate.render.OutputRenderer;
+import com.example.translate.render.OutputRendererRegistry;
 import com.example.translate.service.TranslateService;
-import com.example.translate.thirdpart.DeepSeekProcessor;
-import com.example.translate.util.AdvancedWordGenerator;
+import com.example.translate.store.DocumentStore;
+import com.example.translate.thirdpart.Completion;
+import com.example.translate.thirdpart.StreamHandle;
+import com.example.translate.thirdpart.TranslationProvider;
+import com.example.translate.usage.ClientContext;
+import com.example.translate.usage.UsageTracker;
+import com.example.translate.util.EnglishDetector;
+import com.example.translate.util.SingleFlight;
+import com.example.translate.util.StreamingTranslationExtractor;
+import com.example.translate.util.TextHashUtils;
+import com.example.translate.util.TextSegmenter;
+import com.example.translate.util.TranslateResultParser;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.DateFormatUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.io.BufferedReader;
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class TranslateServiceImpl implements TranslateService {
 
     @Autowired
-    DeepSeekProcessor deepSeekProcessor;
+    TranslationProvider translationProvider;
 
     @Autowired
     private ResourceLoader resourceLoader;
 
-    private static final String DOWNLOAD_DIR = "download";
+    @Autowired
+    private TranslationCache translationCache;
+
+    @Autowired
+    private PromptRegistry promptRegistry;
+
+    @Autowired
+    private TranslateProperties properties;
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @Autowired
+    private TranslateMetrics metrics;
+
+    @Autowired
+    private TranslationMemory translationMemory;
+
+    @Autowired
+    private Glossary glossary;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OutputRendererRegistry rendererRegistry;
+
+    @Autowired
+    private UsageTracker usageTracker;
+
+    /**
+     * Spring MVC异步请求使用的线程池，流式翻译中不走流式调用的请求在这里执行
+     */
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor asyncExecutor;
+
+    /**
+     * 正在翻译的文本，键为缓存键（归一化文本 + 是否提取词汇）
+     */
+    private final SingleFlight<String, TranslateOutput> inFlight = new SingleFlight<>();
+
+    private static final ObjectMapper OBJECT_MAPPER = TranslateResultParser.OBJECT_MAPPER;
+
+    private static final JavaType BATCH_ITEMS_TYPE = OBJECT_MAPPER.getTypeFactory()
+            .constructCollectionType(List.class, BatchItem.class);
+
+    private static final String ENGLISH_TRIGRAMS = "classpath:file/english-trigrams.txt";
+
+    /**
+     * 本地英文预检，未启用时为null
+     */
+    private EnglishDetector englishDetector;
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    @PostConstruct
+    public void init() throws IOException {
+        if (properties.getDetect().isEnabled()) {
+            try (InputStream in = resourceLoader.getResource(ENGLISH_TRIGRAMS).getInputStream()) {
+                englishDetector = EnglishDetector.load(in, properties.getDetect());
+            }
+        }
+        FunctionCounter.builder("translate.coalesce.requests", inFlight, SingleFlight::getExecuted)
+                .description("相同文本并发翻译请求数").tag("result", "executed").register(meterRegistry);
+        FunctionCounter.builder("translate.coalesce.requests", inFlight, SingleFlight::getCoalesced)
+                .description("相同文本并发翻译请求数").tag("result", "coalesced").register(meterRegistry);
+        Gauge.builder("translate.coalesce.inflight", inFlight, SingleFlight::inFlight)
+                .description("正在翻译的不同文本数").register(meterRegistry);
+    }
 
     @Override
     public TranslateOutput translate(TranslateInput input) {
-        TranslateOutput translateOutput = new TranslateOutput();
-        String prompt = preparePrompt(input);
+        String rejected = precheck(input.getText());
+        if (rejected != null) {
+            return failure(rejected);
+        }
+        TranslateOutput translateOutput;
+        try {
+            translateOutput = translateShared(input.getText(), input.isIncludeVocabulary());
+        } catch (TranslateException e) {
+            metrics.failure(e);
+            return failure(e.getMessage());
+        }
+        return finish(input, translateOutput);
+    }
+
+    @Override
+    public StreamHandle translateStream(TranslateInput input, Consumer<String> onDelta,
+                                        Consumer<TranslateOutput> onComplete) {
+        StreamHandle handle = new StreamHandle();
+        String text = input.getText();
+        String rejected = precheck(text);
+        if (rejected != null) {
+            onComplete.accept(failure(rejected));
+            return handle;
+        }
+        boolean includeVocabulary = input.isIncludeVocabulary();
+        String cacheKey = translationCache.keyOf(text, includeVocabulary);
+        TranslateOutput cached = translationCache.get(cacheKey);
+        TranslateProperties.Chunk chunkConfig = properties.getChunk();
+        boolean chunked = chunkConfig.isEnabled() && TextSegmenter.estimateTokens(text) > chunkConfig.getMaxTokens();
+        if (cached != null || chunked) {
+            // 命中缓存或需要分段翻译的长文本不走流式，翻译结果一次性推送；
+            // 分段翻译与生成文档可能耗时较长，交给异步线程池执行，不占用servlet线程
+            String clientId = ClientContext.current();
+            try {
+                asyncExecutor.execute(() -> {
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    ClientContext.set(clientId);
+                    try {
+                        pushWhole(input, cached, onDelta, onComplete);
+                    } finally {
+                        ClientContext.clear();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("流式翻译线程池已满，拒绝请求");
+                onComplete.accept(failure("翻译请求过多，请稍后重试"));
+            }
+            return handle;
+        }
+
+        StreamingTranslationExtractor extractor = new StreamingTranslationExtractor();
+        List<Vocabulary> terms = glossary.match(text);
+        String message = metrics.record(TranslateMetrics.STAGE_PROMPT,
+                () -> promptRegistry.buildTranslateMessage(includeVocabulary, text, terms));
+        Timer.Sample llm = metrics.start();
+        // 回调在其它线程上执行，在请求线程上记下调用方
+        String clientId = ClientContext.current();
+        translationProvider.streamQuestion("", message, handle, delta -> {
+            String translated = extractor.feed(delta);
+            if (!translated.isEmpty()) {
+                onDelta.accept(translated);
+            }
+        }, completion -> {
+            metrics.stop(llm, TranslateMetrics.STAGE_LLM);
+            // 解析、渲染文档与写入存储交给异步线程池，不占用推送流式响应的线程
+            try {
+                asyncExecutor.execute(() -> {
+                    ClientContext.set(clientId);
+                    try {
+                        onComplete.accept(complete(input, completion, terms, cacheKey));
+                    } finally {
+                        ClientContext.clear();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("流式翻译线程池已满，无法生成翻译结果");
+                onComplete.accept(failure("翻译请求过多，请稍后重试"));
+            }
+        }, e -> {
+            metrics.stop(llm, TranslateMetrics.STAGE_LLM);
+            metrics.failure(e);
+            onComplete.accept(failure("调用DeepSeek失败"));
+        });
+        return handle;
+    }
 
-        String result;
+    /**
+     * 流式调用结束后解析完整内容、写入缓存并生成最终结果
+     */
+    private TranslateOutput complete(TranslateInput input, Completion completion, List<Vocabulary> terms,
+                                     String cacheKey) {
         try {
-          result = deepSeekProcessor.processQuestion("",prompt+"The text is:" + input.getText());
-        } catch (Exception e) {
-            log.error("调用 DeepSeek失败", e);
-            translateOutput.setSuccess(Boolean.FALSE);
-            translateOutput.setTranslation("调用DeepSeek失败");
-            return translateOutput;
+            TranslateOutput output = applyGlossary(parseResult(completion.getContent()), terms,
+                    input.isIncludeVocabulary());
+            translationCache.put(cacheKey, output);
+            return finish(input, output);
+        } catch (TranslateException e) {
+            metrics.failure(e);
+            return failure(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("流式翻译出现异常", e);
+            metrics.failure(e);
+            return failure("翻译失败，请稍后重试");
         }
+    }
 
-        result = removeMarkdownCodeBlock(result);
+    /**
+     * 一次性推送完整的翻译结果：命中缓存时直接使用缓存，否则按普通翻译（分段）执行
+     */
+    private void pushWhole(TranslateInput input, TranslateOutput cached, Consumer<String> onDelta,
+                           Consumer<TranslateOutput> onComplete) {
+        TranslateOutput output;
         try {
-            translateOutput = OBJECT_MAPPER.readValue(result, TranslateOutput.class);
-        } catch (Exception e) {
-            log.error("处理 DeepSeek返回值时出现异常，原始返回：{}", result, e);
-            translateOutput.setSuccess(Boolean.FALSE);
-            translateOutput.setTranslation("处理DeepSeek返回值时出现异常");
-            return translateOutput;
+            output = cached != null ? finish(input, cached) : translate(input);
+        } catch (RuntimeException e) {
+            log.error("流式翻译出现异常", e);
+            metrics.failure(e);
+            output = failure("翻译失败，请稍后重试");
+        }
+        if (Boolean.TRUE.equals(output.getSuccess()) && StringUtils.isNotEmpty(output.getTranslation())) {
+            onDelta.accept(output.getTranslation());
+        }
+        onComplete.accept(output);
+    }
+
+    @Override
+    public List<TranslateOutput> translateBatch(List<TranslateInput> inputs) {
+        int size = inputs.size();
+        TranslateOutput[] results = new TranslateOutput[size];
+        String[] errors = new String[size];
+        for (int i = 0; i < size; i++) {
+            errors[i] = precheck(inputs.get(i).getText());
         }
+        translateAll(inputs, results, errors);
 
+        List<TranslateOutput> outputs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            outputs.add(errors[i] != null ? failure(errors[i]) : finish(inputs.get(i), results[i]));
+        }
+        return outputs;
+    }
+
+    /**
+     * 翻译一组文本：命中缓存的直接使用，其余按是否提取词汇分组打包请求，缺失或解析失败的条目再单独重试。
+     * results 或 errors 中已有值的条目跳过，结束时每个条目在 results 或 errors 中有且只有一个值
+     */
+    private void translateAll(List<TranslateInput> inputs, TranslateOutput[] results, String[] errors) {
+        int size = inputs.size();
+        TranslateProperties.Batch config = properties.getBatch();
+
+        // 先查缓存，未命中的按是否提取词汇分组打包
+        Map<Boolean, List<Integer>> groups = new LinkedHashMap<>();
+        List<Integer> singles = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (results[i] != null || errors[i] != null) {
+                continue;
+            }
+            TranslateInput input = inputs.get(i);
+            TranslateOutput cached = translationCache.get(translationCache.keyOf(input.getText(), input.isIncludeVocabulary()));
+            if (cached != null) {
+                results[i] = cached;
+            } else if (TextSegmenter.estimateTokens(input.getText()) > config.getMaxTokens()) {
+                singles.add(i);
+            } else {
+                groups.computeIfAbsent(input.isIncludeVocabulary(), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Map.Entry<Boolean, List<Integer>> group : groups.entrySet()) {
+            for (List<Integer> pack : pack(inputs, group.getValue(), config)) {
+                futures.add(translatePackAsync(inputs, pack, group.getKey(), results));
+            }
+        }
+        // 超长文本不参与打包，走分段翻译
+        for (Integer i : singles) {
+            try {
+                results[i] = translateText(inputs.get(i).getText(), inputs.get(i).isIncludeVocabulary());
+            } catch (TranslateException e) {
+                metrics.failure(e);
+                errors[i] = e.getMessage();
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        // 批量结果中缺失或解析失败的条目单独重试
+        futures.clear();
+        for (int i = 0; i < size; i++) {
+            if (results[i] == null && errors[i] == null) {
+                futures.add(retrySingleAsync(inputs.get(i), i, results, errors));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * 按token预算和条目数上限把同组条目打包
+     */
+    private List<List<Integer>> pack(List<TranslateInput> inputs, List<Integer> indexes, TranslateProperties.Batch config) {
+        List<List<Integer>> packs = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int tokens = 0;
+        for (Integer i : indexes) {
+            // 每个条目额外计入index等json结构的开销
+            int itemTokens = TextSegmenter.estimateTokens(inputs.get(i).getText()) + 8;
+            if (!current.isEmpty() && (tokens + itemTokens > config.getMaxTokens() || current.size() >= config.getMaxItems())) {
+                packs.add(current);
+                current = new ArrayList<>();
+                tokens = 0;
+            }
+            current.add(i);
+            tokens += itemTokens;
+        }
+        if (!current.isEmpty()) {
+            packs.add(current);
+        }
+        return packs;
+    }
+
+    /**
+     * 一次请求翻译一组条目，成功解析的条目写入 results，其余留空等待重试
+     */
+    private CompletableFuture<Void> translatePackAsync(List<TranslateInput> inputs, List<Integer> pack,
+                                                      boolean includeVocabulary, TranslateOutput[] results) {
+        if (pack.size() == 1) {
+            // 单个条目没有打包的必要，交给重试阶段走普通翻译
+            return CompletableFuture.completedFuture(null);
+        }
+        List<Map<String, Object>> items = new ArrayList<>(pack.size());
+        Map<Integer, List<Vocabulary>> itemTerms = new HashMap<>();
+        Map<String, Vocabulary> packTerms = new LinkedHashMap<>();
+        for (Integer i : pack) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("index", i);
+            item.put("text", inputs.get(i).getText());
+            items.add(item);
+            List<Vocabulary> terms = glossary.match(inputs.get(i).getText());
+            itemTerms.put(i, terms);
+            for (Vocabulary term : terms) {
+                if (packTerms.size() < properties.getGlossary().getMaxPromptTerms()) {
+                    packTerms.putIfAbsent(term.getEnglish(), term);
+                }
+            }
+        }
+        String message;
+        Timer.Sample prompt = metrics.start();
+        try {
+            message = promptRegistry.buildBatchMessage(includeVocabulary, OBJECT_MAPPER.writeValueAsString(items),
+                    new ArrayList<>(packTerms.values()));
+        } catch (JsonProcessingException e) {
+            log.error("生成批量翻译请求失败，将单独重试", e);
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            metrics.stop(prompt, TranslateMetrics.STAGE_PROMPT);
+        }
+        Timer.Sample llm = metrics.start();
+        return translationProvider.processQuestionAsync("", message).handle((result, e) -> {
+            metrics.stop(llm, TranslateMetrics.STAGE_LLM);
+            if (e != null) {
+                log.error("批量翻译失败，将单独重试", e);
+                return null;
+            }
+            try {
+                List<BatchItem> batchItems = metrics.record(TranslateMetrics.STAGE_PARSE,
+                        () -> TranslateResultParser.extract(result, BATCH_ITEMS_TYPE, '['));
+                Set<Integer> expected = new HashSet<>(pack);
+                for (BatchItem item : batchItems) {
+                    if (item.getIndex() == null || !expected.remove(item.getIndex()) || item.getSuccess() == null) {
+                        continue;
+                    }
+                    TranslateOutput output = new TranslateOutput();
+                    output.setSuccess(item.getSuccess());
+                    output.setTranslation(item.getTranslation());
+                    output.setVocabulary(item.getVocabulary());
+                    applyGlossary(output, itemTerms.get(item.getIndex()), includeVocabulary);
+                    TranslateInput input = inputs.get(item.getIndex());
+                    translationCache.put(translationCache.keyOf(input.getText(), includeVocabulary), output);
+                    results[item.getIndex()] = output;
+                }
+                if (!expected.isEmpty()) {
+                    log.warn("批量翻译结果缺少条目{}，将单独重试", expected);
+                }
+            } catch (Exception ex) {
+                log.error("处理批量翻译返回值时出现异常，将单独重试，原始返回：{}", result, ex);
+            }
+            return null;
+        });
+    }
+
+    private CompletableFuture<Void> retrySingleAsync(TranslateInput input, int index,
+                                                     TranslateOutput[] results, String[] errors) {
+        return translateSegmentAsync(input.getText(), input.isIncludeVocabulary(), Collections.emptyList())
+                .handle((output, e) -> {
+            if (e != null) {
+                TranslateException ex = toTranslateException(e);
+                metrics.failure(ex);
+                errors[index] = ex.getMessage();
+            } else {
+                results[index] = output;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 翻译完成后的处理：非英文输入给出提示，需要时按输出格式生成文档
+     */
+    private TranslateOutput finish(TranslateInput input, TranslateOutput translateOutput) {
         if(!translateOutput.getSuccess()){
+            metrics.outcome(TranslateMetrics.OUTCOME_NON_ENGLISH);
             translateOutput.setTranslation("翻译失败，输入不是英文");
             return translateOutput;
         }
 
-        if(StringUtils.equals(input.getOutputFormat(), OutputFormat.WORD.getCode())) {
-            //生成word文档
+        OutputRenderer renderer = rendererRegistry.get(OutputFormat.getFormat(input.getOutputFormat()));
+        if(renderer != null) {
+            //生成文档，地址沿用 word_document_url 字段返回
+            Timer.Sample render = metrics.start();
             try{
-                String outputPath = getPath();
-                generateWordDocument(input, translateOutput,outputPath);
-                translateOutput.setWordDocumentUrl(outputPath);
+                TranslateOutput result = translateOutput;
+                String documentId = documentId(input, result, renderer);
+                documentStore.save(documentId, out -> renderer.render(input, result, out));
+                translateOutput.setWordDocumentUrl(documentId);
             }catch (Exception e) {
-                log.error("生成word文档时出现异常", e);
+                log.error("生成{}文档时出现异常", renderer.getFormat().getCode(), e);
+                metrics.outcome(TranslateMetrics.OUTCOME_RENDER_ERROR);
                 translateOutput.setSuccess(Boolean.FALSE);
-                translateOutput.setTranslation("生成word文档失败");
+                translateOutput.setTranslation("生成" + renderer.getFormat().getDesc() + "失败");
                 translateOutput.setWordDocumentUrl(null);
+                return translateOutput;
+            } finally {
+                metrics.stop(render, TranslateMetrics.STAGE_RENDER);
             }
         }
+        metrics.outcome(TranslateMetrics.OUTCOME_SUCCESS);
         return translateOutput;
     }
 
     /**
-     * 生成prompt
-     * @param input
-     * @return
+     * 调用大模型前的本地英文预检
+     *
+     * @return 明显不是英文时返回失败提示，否则返回null
      */
-    private String preparePrompt(TranslateInput input) {
-        String promptUrl = null;
-        if(input.isIncludeVocabulary()){
-            promptUrl = "classpath:file/prompt-with-vocabulary.txt";
-        }else{
-            promptUrl = "classpath:file/prompt-no-vocabulary.txt";
+    private String precheck(String text) {
+        if (englishDetector == null) {
+            return null;
         }
-        Resource resource = resourceLoader.getResource(promptUrl);
-        try (InputStream inputStream = resource.getInputStream();
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            StringBuilder content = new StringBuilder();
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
-            }
-            String fileContent = content.toString();
-            return fileContent;
-        } catch (IOException e) {
-            log.error("读取prompt文件时出现异常", e);
+        EnglishDetector.Verdict verdict = englishDetector.detect(text);
+        if (verdict == EnglishDetector.Verdict.ENGLISH) {
             return null;
         }
+        metrics.outcome(TranslateMetrics.OUTCOME_PRECHECK_REJECTED);
+        return "翻译失败，输入不是英文：" + verdict.getReason();
+    }
+
+    private static TranslateOutput failure(String message) {
+        TranslateOutput output = new TranslateOutput();
+        output.setSuccess(Boolean.FALSE);
+        output.setTranslation(message);
+        return output;
     }
 
     /**
-     * 有时会返回markdown格式的json，需要移除
-     * @param jsonString
-     * @return
+     * 翻译文本：开启翻译记忆时先复用记忆中的句子译文，否则整体翻译，并把译文按句写入记忆
+     *
+     * @param text 待翻译文本
+     * @param includeVocabulary 是否提取词汇
+     * @return 翻译结果
      */
-    private  String removeMarkdownCodeBlock(String jsonString) {
-        // 移除开头的 ```json 和结尾的 ```
-        return jsonString
-                .replaceAll("^```json\\s*", "")  // 移除开头的 ```json
-                .replaceAll("\\s*```$", "")      // 移除结尾的 ```
-                .trim();
+    private TranslateOutput translateText(String text, boolean includeVocabulary) {
+        if (!translationMemory.isEnabled()) {
+            return translateChunked(text, includeVocabulary, Collections.emptyList());
+        }
+        TranslateOutput cached = translationCache.get(translationCache.keyOf(text, includeVocabulary));
+        if (cached != null) {
+            return cached;
+        }
+        List<TextSegmenter.Segment> sentences = TextSegmenter.splitSentences(text);
+        TranslateOutput output = sentences.size() >= properties.getMemory().getMinSentences()
+                ? translateWithMemory(text, sentences, includeVocabulary) : null;
+        if (output == null) {
+            output = translateChunked(text, includeVocabulary, translationMemory.references(texts(sentences)));
+            translationMemory.putAligned(text, output, includeVocabulary);
+        }
+        return output;
     }
 
     /**
-     * 生成结果的word文档
+     * 超出token预算的长文本按段落/句子切分后并发翻译，再按顺序合并
      *
-     * @param translateInput 翻译输入
-     * @param translateOutput 翻译输出
-     * @param outputPath 文档输出路径
-     * @throws IOException
+     * @param references 翻译记忆中相似句子的参考译文
      */
-    private void generateWordDocument(TranslateInput translateInput, TranslateOutput translateOutput,String outputPath) throws IOException {
-        if(translateInput==null|| translateOutput == null) {
-            return;
+    private TranslateOutput translateChunked(String text, boolean includeVocabulary,
+                                             List<TranslationMemory.Reference> references) {
+        TranslateProperties.Chunk config = properties.getChunk();
+        if (!config.isEnabled() || TextSegmenter.estimateTokens(text) <= config.getMaxTokens()) {
+            return translateSegment(text, includeVocabulary, references);
         }
-        if(StringUtils.isEmpty(translateInput.getText())) {
-            return;
+        List<TextSegmenter.Segment> segments = TextSegmenter.split(text, config.getMaxTokens());
+        if (segments.size() <= 1) {
+            return translateSegment(text, includeVocabulary, references);
         }
-        Map<String, String> data = new HashMap<>();
-        data.put("input", translateInput.getText());
-        data.put("output", translateOutput.getTranslation());
 
-        List<DynamicTable> dynamicTables = new ArrayList<>();
-        DynamicTable vocabularyTable = createVocabularyTable(translateOutput);
-        dynamicTables.add(vocabularyTable);
+        List<CompletableFuture<TranslateOutput>> futures = new ArrayList<>(segments.size());
+        for (TextSegmenter.Segment segment : segments) {
+            futures.add(translateSegmentAsync(segment.getText(), includeVocabulary, Collections.emptyList()));
+        }
+        List<TranslateOutput> outputs = new ArrayList<>(segments.size());
+        for (CompletableFuture<TranslateOutput> future : futures) {
+            outputs.add(join(future));
+        }
+        return mergeSegments(segments, outputs);
+    }
+
+    /**
+     * 翻译文本，同时进行的相同请求只翻译一次，共享同一次调用的结果
+     * <p>
+     * 后续流程（如生成word文档）会修改结果，因此每个请求拿到各自的副本。
+     * token用量只记在实际发起调用的请求的调用方名下，共享结果的请求不扣减token，只统计合并次数
+     */
+    private TranslateOutput translateShared(String text, boolean includeVocabulary) {
+        if (!properties.getCoalesce().isEnabled()) {
+            return translateText(text, includeVocabulary);
+        }
+        AtomicBoolean leader = new AtomicBoolean();
+        CompletableFuture<TranslateOutput> flight = inFlight.execute(translationCache.keyOf(text, includeVocabulary),
+                () -> {
+                    leader.set(true);
+                    return CompletableFuture.completedFuture(translateText(text, includeVocabulary));
+                });
+        if (!leader.get()) {
+            usageTracker.recordCoalesced(ClientContext.current());
+        }
+        return TranslationCache.copyOf(join(flight));
+    }
+
+    /**
+     * 复用翻译记忆：只有记忆中精确命中了某些句子（如用户修改文档后重新提交）时才按句子拆分，
+     * 命中的句子直接取用记忆中的译文，相邻的未命中句子合并为一段整体翻译以保留上下文，再按原文顺序拼接；
+     * 合并结果按整段文本写入缓存
+     *
+     * @return 没有句子命中，或某段翻译失败需要整体重新翻译时返回null
+     */
+    private TranslateOutput translateWithMemory(String text, List<TextSegmenter.Segment> sentences,
+                                                boolean includeVocabulary) {
+        int size = sentences.size();
+        TranslateOutput[] hits = new TranslateOutput[size];
+        int reused = 0;
+        for (int i = 0; i < size; i++) {
+            hits[i] = translationMemory.lookup(sentences.get(i).getText(), includeVocabulary);
+            if (hits[i] != null) {
+                reused++;
+            }
+        }
+        if (reused == 0) {
+            return null;
+        }
+
+        List<TextSegmenter.Segment> parts = new ArrayList<>();
+        List<CompletableFuture<TranslateOutput>> futures = new ArrayList<>();
+        int i = 0;
+        while (i < size) {
+            if (hits[i] != null) {
+                parts.add(sentences.get(i));
+                futures.add(CompletableFuture.completedFuture(hits[i]));
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < size && hits[end] == null) {
+                end++;
+            }
+            TextSegmenter.Segment run = concat(sentences.subList(i, end));
+            parts.add(run);
+            futures.add(translateSegmentAsync(run.getText(), includeVocabulary,
+                    translationMemory.references(texts(sentences.subList(i, end)))));
+            i = end;
+        }
+
+        List<TranslateOutput> outputs = new ArrayList<>(parts.size());
+        for (CompletableFuture<TranslateOutput> future : futures) {
+            try {
+                outputs.add(join(future));
+            } catch (TranslateException e) {
+                log.warn("按句子翻译失败，改为整体翻译：{}", e.getMessage());
+                return null;
+            }
+        }
+        for (int j = 0; j < parts.size(); j++) {
+            translationMemory.putAligned(parts.get(j).getText(), outputs.get(j), includeVocabulary);
+        }
+        TranslateOutput merged = mergeSegments(parts, outputs);
+        if (Boolean.TRUE.equals(merged.getSuccess())) {
+            translationCache.put(translationCache.keyOf(text, includeVocabulary), merged);
+        }
+        log.debug("按句子翻译，共{}句，复用翻译记忆{}句", size, reused);
+        return merged;
+    }
+
+    /**
+     * 把相邻句子按原文分隔符拼接为一段
+     */
+    private static TextSegmenter.Segment concat(List<TextSegmenter.Segment> sentences) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sentences.size(); i++) {
+            text.append(sentences.get(i).getText());
+            if (i < sentences.size() - 1) {
+                text.append(sentences.get(i).getSeparator());
+            }
+        }
+        return new TextSegmenter.Segment(text.toString(), sentences.get(sentences.size() - 1).getSeparator());
+    }
 
-        AdvancedWordGenerator.generateWord(
-                resourceLoader.getResource("classpath:file/template.docx").getInputStream(),
-                outputPath,
-                data,
-                dynamicTables
-        );
+    private static List<String> texts(List<TextSegmenter.Segment> segments) {
+        List<String> texts = new ArrayList<>(segments.size());
+        for (TextSegmenter.Segment segment : segments) {
+            texts.add(segment.getText());
+        }
+        return texts;
+    }
 
+    /**
+     * 翻译单个分段：优先读缓存，未命中时调用DeepSeek
+     */
+    private TranslateOutput translateSegment(String text, boolean includeVocabulary,
+                                             List<TranslationMemory.Reference> references) {
+        return join(translateSegmentAsync(text, includeVocabulary, references));
     }
 
-    private DynamicTable createVocabularyTable(TranslateOutput translateOutput) {
+    /**
+     * 异步翻译单个分段，DeepSeek调用在其有界线程池中执行，不占用当前线程
+     *
+     * @param references 翻译记忆中相似句子的参考译文，只作为prompt中的参考
+     */
+    private CompletableFuture<TranslateOutput> translateSegmentAsync(String text, boolean includeVocabulary,
+                                                                     List<TranslationMemory.Reference> references) {
+        String cacheKey = translationCache.keyOf(text, includeVocabulary);
+        TranslateOutput cached = translationCache.get(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        List<Vocabulary> terms = glossary.match(text);
+        String message = metrics.record(TranslateMetrics.STAGE_PROMPT,
+                () -> promptRegistry.buildTranslateMessage(includeVocabulary, text, terms, references));
+        Timer.Sample llm = metrics.start();
+        return translationProvider.processQuestionAsync("", message).whenComplete((result, e) ->
+                metrics.stop(llm, TranslateMetrics.STAGE_LLM)).thenApply(result -> {
+            TranslateOutput translateOutput = applyGlossary(parseResult(result), terms, includeVocabulary);
+            // 只缓存正常解析的结果，调用失败或解析失败的不缓存
+            translationCache.put(cacheKey, translateOutput);
+            return translateOutput;
+        });
+    }
 
-        List<String> headers = Arrays.asList("单词", "中文", "解释");
-        List<List<String>> rows = new ArrayList<>();
-        if (translateOutput != null && translateOutput.getVocabulary() != null) {
-            for (Vocabulary v : translateOutput.getVocabulary()) {
-                rows.add(Arrays.asList(
-                        StringUtils.defaultString(v.getEnglish()),
-                        StringUtils.defaultString(v.getChinese()),
-                        StringUtils.defaultString(v.getExplanation())
-                ));
+    /**
+     * 收录模型新提取的词汇，并把文本中命中的已知术语补充到结果的词汇中（prompt已要求模型不再重复提取）
+     */
+    private TranslateOutput applyGlossary(TranslateOutput output, List<Vocabulary> terms, boolean includeVocabulary) {
+        if (!includeVocabulary || !Boolean.TRUE.equals(output.getSuccess())) {
+            return output;
+        }
+        glossary.learn(output.getVocabulary());
+        if (terms == null || terms.isEmpty()) {
+            return output;
+        }
+        List<Vocabulary> vocabulary = output.getVocabulary() == null ? new ArrayList<>() : new ArrayList<>(output.getVocabulary());
+        Set<String> extracted = new HashSet<>();
+        for (Vocabulary v : vocabulary) {
+            extracted.add(StringUtils.lowerCase(StringUtils.normalizeSpace(v.getEnglish())));
+        }
+        for (Vocabulary term : terms) {
+            if (extracted.add(StringUtils.lowerCase(term.getEnglish()))) {
+                vocabulary.add(term);
             }
         }
-        DynamicTable table = new DynamicTable("vocabulary", headers, rows);
+        output.setVocabulary(vocabulary);
+        return output;
+    }
 
-        // 设置表格样式
-        TableStyle style = table.getStyle();
-        style.setWidth("90%");
-        style.setAutoLayout(true);
+    /**
+     * 解析DeepSeek返回值并统计耗时
+     */
+    private TranslateOutput parseResult(String result) {
+        return metrics.record(TranslateMetrics.STAGE_PARSE, () -> TranslateResultParser.parse(result));
+    }
 
-        table.setStyle(style);
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw toTranslateException(e);
+        }
+    }
 
-        return table;
+    /**
+     * 把异步调用的异常转换为 TranslateException
+     */
+    private static TranslateException toTranslateException(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TranslateException) {
+            return (TranslateException) cause;
+        }
+        log.error("调用 DeepSeek失败", cause);
+        return new TranslateException("调用DeepSeek失败", cause);
     }
 
-    private String getPath() {
-        String datePath = DateFormatUtils.format(new Date(), "yyyyMMdd");
-        String FileName = "translate_" +  UUID.randomUUID().toString() + ".docx";
-        return DOWNLOAD_DIR+"/" + datePath + "/" + FileName;
+    /**
+     * 按原文顺序合并分段结果，词汇按英文（忽略大小写）去重
+     */
+    private TranslateOutput mergeSegments(List<TextSegmenter.Segment> segments, List<TranslateOutput> outputs) {
+        TranslateOutput merged = new TranslateOutput();
+        StringBuilder translation = new StringBuilder();
+        Map<String, Vocabulary> vocabulary = new LinkedHashMap<>();
+        boolean hasVocabulary = false;
+        for (int i = 0; i < outputs.size(); i++) {
+            TranslateOutput output = outputs.get(i);
+            if (!Boolean.TRUE.equals(output.getSuccess())) {
+                // 任一分段不是英文，则整体视为非英文输入
+                merged.setSuccess(Boolean.FALSE);
+                merged.setTranslation("");
+                return merged;
+            }
+            translation.append(StringUtils.defaultString(output.getTranslation()));
+            if (i < outputs.size() - 1) {
+                translation.append(segments.get(i).translatedSeparator());
+            }
+            if (output.getVocabulary() != null) {
+                hasVocabulary = true;
+                for (Vocabulary v : output.getVocabulary()) {
+                    String key = StringUtils.lowerCase(StringUtils.trimToEmpty(v.getEnglish()));
+                    if (!vocabulary.containsKey(key)) {
+                        vocabulary.put(key, v);
+                    }
+                }
+            }
+        }
+        merged.setSuccess(Boolean.TRUE);
+        merged.setTranslation(translation.toString());
+        if (hasVocabulary) {
+            merged.setVocabulary(new ArrayList<>(vocabulary.values()));
+        }
+        return merged;
+    }
+
+    /**
+     * 文档id：渲染版本与翻译内容的摘要，内容相同的翻译共用同一个文档
+     */
+    private String documentId(TranslateInput input, TranslateOutput output, OutputRenderer renderer) {
+        StringBuilder content = new StringBuilder();
+        content.append(renderer.getFingerprint())
+                .append('\u0000').append(input.getText())
+                .append('\u0000').append(StringUtils.defaultString(output.getTranslation()));
+        if (output.getVocabulary() != null) {
+            for (Vocabulary v : output.getVocabulary()) {
+                content.append('\u0000').append(StringUtils.defaultString(v.getEnglish()))
+                        .append('\u0001').append(StringUtils.defaultString(v.getChinese()))
+                        .append('\u0001').append(StringUtils.defaultString(v.getExplanation()));
+            }
+        }
+        return TextHashUtils.sha256Hex(content.toString()) + "." + renderer.getFormat().getExtension();
+    }
+
+    /**
+     * 批量翻译返回数组中的单个条目
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class BatchItem {
+        private Integer index;
+        private Boolean success;
+        private String translation;
+        private List<Vocabulary> vocabulary;
     }
 }
@@ -0,0 +1,64 @@
+package com.example.translate.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * 生成文档的存储
+ * <p>
+ * 文档按内容寻址：id 为翻译内容的摘要，内容相同的翻译共用同一个文件，已存在时不再重复生成。
+ */
+public interface DocumentStore {
+
+    Pattern ID_PATTERN = Pattern.compile("[0-9a-f]{64}\\.(docx|html|md|xlsx)");
+
+    /**
+     * 是否是合法的文档id，下载接口据此区分新文档与旧版本生成的文件路径
+     */
+    static boolean isValidId(String id) {
+        return id != null && ID_PATTERN.matcher(id).matches();
+    }
+
+    /**
+     * 保存文档，id 已存在时不调用 writer
+     *
+     * @param id 文档id
+     * @param writer 写入文档内容
+     */
+    void save(String id, DocumentWriter writer) throws IOException;
+
+    /**
+     * 读取文档
+     *
+     * @throws java.io.FileNotFoundException 文档不存在
+     */
+    InputStream open(String id) throws IOException;
+
+    /**
+     * 本地文件路径，文档不存在或不是本地存储时返回null
+     */
+    default Path localPath(String id) {
+        return null;
+    }
+
+    /**
+     * 可直接下载的地址（如对象存储的预签名URL），不支持时返回null
+     */
+    default String downloadUrl(String id) {
+        return null;
+    }
+
+    /**
+     * 清理过期文档
+     */
+    default void sweep() {
+    }
+
+    @FunctionalInterface
+    interface DocumentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
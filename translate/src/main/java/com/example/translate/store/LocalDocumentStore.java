@@ -0,0 +1,259 @@
+package com.example.translate.store;
+
+import com.example.translate.config.TranslateProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 本地文件系统存储
+ * <p>
+ * 文件按id前缀分两级目录存放（如 ab/cd/abcd....docx），避免单个目录下文件过多；
+ * 后台定期按最后访问时间清理超过保留时间的文件，并在总大小或文件数超限时从最久未访问的文件开始删除。
+ * 清理范围是整个存储目录，包括旧版本按日期生成的文件。
+ */
+@Slf4j
+public class LocalDocumentStore implements DocumentStore {
+
+    private static final String TEMP_DIR = ".tmp";
+
+    private static final long TEMP_FILE_TTL = 60 * 60 * 1000L;
+
+    private static final int MOVE_ATTEMPTS = 3;
+
+    private final TranslateProperties.Local config;
+
+    private final Path root;
+
+    private final Path tempDir;
+
+    public LocalDocumentStore(TranslateProperties.Local config) {
+        this.config = config;
+        this.root = Paths.get(config.getDir()).toAbsolutePath().normalize();
+        this.tempDir = root.resolve(TEMP_DIR);
+    }
+
+    @Override
+    public void save(String id, DocumentWriter writer) throws IOException {
+        Path target = resolve(id);
+        if (Files.isRegularFile(target) && touch(target)) {
+            // 内容相同的文档已存在，刷新访问时间，避免被清理；刷新前恰好被清理时重新生成
+            return;
+        }
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, id, ".tmp");
+        try {
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                writer.write(os);
+            }
+            try {
+                moveIntoPlace(temp, target);
+            } catch (FileAlreadyExistsException e) {
+                // 并发生成了相同内容的文档
+                log.debug("文档已存在：{}", id);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 将临时文件移动到目标位置
+     * <p>
+     * 分级目录不存在时创建后重试；清理任务可能在创建目录与移动之间删除空目录，因此允许多次重试。
+     */
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            } catch (NoSuchFileException e) {
+                if (attempt >= MOVE_ATTEMPTS) {
+                    throw e;
+                }
+                Files.createDirectories(target.getParent());
+            }
+        }
+    }
+
+    @Override
+    public InputStream open(String id) throws IOException {
+        Path path = localPath(id);
+        if (path == null) {
+            throw new FileNotFoundException(id);
+        }
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public Path localPath(String id) {
+        Path path = resolve(id);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        touch(path);
+        return path;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * 清理过期文件：先删除超过保留时间的文件，再按最后访问时间从旧到新删除，直到总大小与文件数都不超限
+     * <p>
+     * 扫描开始后被访问或重新保存过的文件不删除，避免刚返回给调用方的文档被清理。
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${translate.store.sweep-interval:600000}")
+    public void sweep() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        long scanStartedAt = System.currentTimeMillis();
+        List<StoredFile> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (file.startsWith(tempDir)) {
+                        // 正在写入的临时文件不参与容量淘汰，只清理异常残留的
+                        if (attrs.lastModifiedTime().toMillis() < System.currentTimeMillis() - TEMP_FILE_TTL) {
+                            deleteQuietly(file);
+                        }
+                    } else if (attrs.isRegularFile()) {
+                        files.add(new StoredFile(file, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("扫描文档目录失败：{}", root, e);
+            return;
+        }
+
+        files.sort(Comparator.comparingLong(f -> f.lastModified));
+        long expireBefore = System.currentTimeMillis() - config.getTtl().toMillis();
+        long maxSize = config.getMaxSize().toBytes();
+        long totalSize = 0;
+        for (StoredFile file : files) {
+            totalSize += file.size;
+        }
+        int remaining = files.size();
+        int deleted = 0;
+        for (StoredFile file : files) {
+            boolean expired = file.lastModified < expireBefore;
+            if (!expired && totalSize <= maxSize && remaining <= config.getMaxFiles()) {
+                // 按时间排序，之后的文件都不需要删除
+                break;
+            }
+            if (modifiedSince(file.path, scanStartedAt)) {
+                continue;
+            }
+            if (deleteQuietly(file.path)) {
+                deleted++;
+            }
+            totalSize -= file.size;
+            remaining--;
+        }
+        if (deleted > 0) {
+            deleteEmptyDirectories();
+            log.info("已清理文档{}个，剩余{}个，共{}字节", deleted, remaining, totalSize);
+        }
+    }
+
+    private void deleteEmptyDirectories() {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                    if (!dir.equals(root)) {
+                        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                            if (!entries.iterator().hasNext()) {
+                                Files.delete(dir);
+                            }
+                        } catch (IOException ignore) {
+                            // 目录非空或正在被写入
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("清理空目录失败：{}", root, e);
+        }
+    }
+
+    private Path resolve(String id) {
+        if (!DocumentStore.isValidId(id)) {
+            throw new IllegalArgumentException("非法的文档id：" + id);
+        }
+        return root.resolve(id.substring(0, 2)).resolve(id.substring(2, 4)).resolve(id);
+    }
+
+    private static boolean deleteQuietly(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除过期文档失败：{}", path, e);
+            return false;
+        }
+    }
+
+    private static boolean modifiedSince(Path path, long time) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis() >= time;
+        } catch (IOException e) {
+            // 文件已不存在，按未修改处理
+            return false;
+        }
+    }
+
+    /**
+     * 刷新文件的访问时间，文件已不存在时返回false
+     */
+    private static boolean touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.debug("更新文档访问时间失败：{}", path, e);
+            return true;
+        }
+    }
+
+    private static final class StoredFile {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        private StoredFile(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
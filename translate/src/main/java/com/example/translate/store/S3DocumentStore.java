@@ -0,0 +1,143 @@
+package com.example.translate.store;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.Enum.OutputFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * S3 兼容对象存储（AWS S3、MinIO 等），使用 SigV4 签名的 HTTP 请求，不依赖 AWS SDK
+ * <p>
+ * 文档先写入本地临时文件再上传；下载接口重定向到预签名URL，由对象存储直接发送文件。
+ * 过期清理使用存储桶的生命周期规则（按 prefix 配置过期天数）。
+ */
+@Slf4j
+public class S3DocumentStore implements DocumentStore {
+
+    private final TranslateProperties.S3 config;
+
+    private final S3Signer signer;
+
+    public S3DocumentStore(TranslateProperties.S3 config) {
+        if (StringUtils.isAnyBlank(config.getEndpoint(), config.getBucket())) {
+            throw new IllegalStateException("对象存储必须配置endpoint与bucket");
+        }
+        this.config = config;
+        this.signer = new S3Signer(config.getAccessKey(), config.getSecretKey(), config.getRegion());
+    }
+
+    @Override
+    public void save(String id, DocumentWriter writer) throws IOException {
+        URI uri = objectUri(id);
+        if (exists(uri)) {
+            return;
+        }
+        OutputFormat format = OutputFormat.fromFilename(id);
+        Path temp = Files.createTempFile("document", ".tmp");
+        try {
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                writer.write(os);
+            }
+            long length = Files.size(temp);
+            HttpURLConnection connection = open("PUT", uri);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(length);
+            connection.setRequestProperty("Content-Type", format != null ? format.getContentType() : "application/octet-stream");
+            try (OutputStream os = connection.getOutputStream()) {
+                Files.copy(temp, os);
+            }
+            int status = connection.getResponseCode();
+            if (status / 100 != 2) {
+                throw new IOException("上传文档失败，状态码：" + status + "，" + error(connection));
+            }
+            connection.disconnect();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream open(String id) throws IOException {
+        HttpURLConnection connection = open("GET", objectUri(id));
+        int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+            connection.disconnect();
+            throw new FileNotFoundException(id);
+        }
+        if (status / 100 != 2) {
+            throw new IOException("读取文档失败，状态码：" + status + "，" + error(connection));
+        }
+        return connection.getInputStream();
+    }
+
+    @Override
+    public String downloadUrl(String id) {
+        return signer.presign("GET", objectUri(id), Instant.now(), config.getPresignTtl());
+    }
+
+    private boolean exists(URI uri) throws IOException {
+        HttpURLConnection connection = open("HEAD", uri);
+        int status = connection.getResponseCode();
+        connection.disconnect();
+        if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+            return false;
+        }
+        if (status / 100 != 2) {
+            throw new IOException("查询文档失败，状态码：" + status);
+        }
+        return true;
+    }
+
+    private HttpURLConnection open(String method, URI uri) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout((int) config.getConnectTimeout().toMillis());
+        connection.setReadTimeout((int) config.getReadTimeout().toMillis());
+        for (Map.Entry<String, String> header
+                : signer.signHeaders(method, uri, S3Signer.UNSIGNED_PAYLOAD, Instant.now()).entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        return connection;
+    }
+
+    /**
+     * 对象地址：路径风格为 endpoint/bucket/key，否则为 bucket.endpoint/key
+     */
+    private URI objectUri(String id) {
+        if (!DocumentStore.isValidId(id)) {
+            throw new IllegalArgumentException("非法的文档id：" + id);
+        }
+        String key = StringUtils.defaultString(config.getPrefix()) + id.substring(0, 2) + "/" + id;
+        URI endpoint = URI.create(StringUtils.removeEnd(config.getEndpoint(), "/"));
+        if (config.isPathStyle()) {
+            return URI.create(endpoint + "/" + config.getBucket() + "/" + key);
+        }
+        String authority = config.getBucket() + "." + endpoint.getAuthority();
+        return URI.create(endpoint.getScheme() + "://" + authority + "/" + key);
+    }
+
+    private static String error(HttpURLConnection connection) {
+        try (InputStream in = connection.getErrorStream()) {
+            if (in == null) {
+                return "";
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int n;
+            while ((n = in.read(buffer)) > 0 && out.size() < 4096) {
+                out.write(buffer, 0, n);
+            }
+            return out.toString("UTF-8");
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.translate.store;
+
+import com.example.translate.util.TextHashUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * S3 兼容接口的 AWS Signature Version 4 签名，支持请求头签名与预签名URL
+ */
+public class S3Signer {
+
+    public static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+
+    private static final String SERVICE = "s3";
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+
+    private final String secretKey;
+
+    private final String region;
+
+    public S3Signer(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * 计算请求头签名，返回需要附加到请求上的头（x-amz-date、x-amz-content-sha256、Authorization）
+     *
+     * @param method 请求方法
+     * @param uri 请求地址（不含查询参数）
+     * @param payloadHash 请求体SHA-256，或 UNSIGNED-PAYLOAD
+     * @param now 签名时间
+     */
+    public Map<String, String> signHeaders(String method, URI uri, String payloadHash, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String scope = scope(amzDate);
+        Map<String, String> headers = new TreeMap<>();
+        headers.put("host", host(uri));
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("x-amz-date", amzDate);
+
+        StringBuilder canonicalHeaders = new StringBuilder();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            canonicalHeaders.append(header.getKey()).append(':').append(header.getValue().trim()).append('\n');
+        }
+        String signedHeaders = String.join(";", headers.keySet());
+        String canonicalRequest = method + '\n' + canonicalUri(uri) + "\n\n" + canonicalHeaders + '\n'
+                + signedHeaders + '\n' + payloadHash;
+        String signature = sign(amzDate, scope, canonicalRequest);
+
+        Map<String, String> result = new TreeMap<>();
+        result.put("x-amz-date", amzDate);
+        result.put("x-amz-content-sha256", payloadHash);
+        result.put("Authorization", ALGORITHM + " Credential=" + accessKey + '/' + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        return result;
+    }
+
+    /**
+     * 生成预签名URL
+     *
+     * @param method 请求方法
+     * @param uri 对象地址（不含查询参数）
+     * @param now 签名时间
+     * @param expires 有效期，最长7天
+     */
+    public String presign(String method, URI uri, Instant now, Duration expires) {
+        String amzDate = AMZ_DATE.format(now);
+        String scope = scope(amzDate);
+        Map<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + '/' + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", String.valueOf(expires.getSeconds()));
+        query.put("X-Amz-SignedHeaders", "host");
+
+        StringBuilder canonicalQuery = new StringBuilder();
+        for (Map.Entry<String, String> param : query.entrySet()) {
+            if (canonicalQuery.length() > 0) {
+                canonicalQuery.append('&');
+            }
+            canonicalQuery.append(encode(param.getKey())).append('=').append(encode(param.getValue()));
+        }
+        String canonicalUri = canonicalUri(uri);
+        String canonicalRequest = method + '\n' + canonicalUri + '\n' + canonicalQuery + '\n'
+                + "host:" + host(uri) + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        String signature = sign(amzDate, scope, canonicalRequest);
+        return uri.getScheme() + "://" + host(uri) + canonicalUri + '?' + canonicalQuery
+                + "&X-Amz-Signature=" + signature;
+    }
+
+    private String scope(String amzDate) {
+        return amzDate.substring(0, 8) + '/' + region + '/' + SERVICE + "/aws4_request";
+    }
+
+    private String sign(String amzDate, String scope, String canonicalRequest) {
+        String stringToSign = ALGORITHM + '\n' + amzDate + '\n' + scope + '\n'
+                + TextHashUtils.sha256Hex(canonicalRequest);
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), amzDate.substring(0, 8));
+        key = hmac(key, region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, "aws4_request");
+        return TextHashUtils.toHex(hmac(key, stringToSign));
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("当前JVM不支持HmacSHA256", e);
+        }
+    }
+
+    private static String host(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1 || ("http".equals(uri.getScheme()) && port == 80)
+                || ("https".equals(uri.getScheme()) && port == 443);
+        return defaultPort ? uri.getHost() : uri.getHost() + ':' + port;
+    }
+
+    /**
+     * 路径按段进行URI编码，保留分隔符 /
+     */
+    private static String canonicalUri(URI uri) {
+        String path = uri.getPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        String[] segments = path.split("/", -1);
+        StringBuilder sb = new StringBuilder(path.length() + 16);
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                sb.append('/');
+            }
+            sb.append(encode(segments[i]));
+        }
+        return sb.toString();
+    }
+
+    static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name())
+                    .replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
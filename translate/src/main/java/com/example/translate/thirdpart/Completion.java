@@ -0,0 +1,22 @@
+package com.example.translate.thirdpart;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 一次大模型调用的结果：返回内容及服务商报告的token用量（未报告时为0）
+ */
+@Data
+@AllArgsConstructor
+public class Completion {
+
+    private String content;
+
+    private long promptTokens;
+
+    private long completionTokens;
+
+    public long totalTokens() {
+        return promptTokens + completionTokens;
+    }
+}
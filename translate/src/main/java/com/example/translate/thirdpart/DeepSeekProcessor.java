@@ -1,48 +1,554 @@
 package com.example.translate.thirdpart;
 
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.UpstreamRejectedException;
+import com.example.translate.util.TextSegmenter;
+import com.example.translate.util.TokenBucket;
 import io.github.pigmesh.ai.deepseek.core.DeepSeekClient;
+import io.github.pigmesh.ai.deepseek.core.OpenAiHttpException;
+import io.github.pigmesh.ai.deepseek.core.ResponseHandle;
 import io.github.pigmesh.ai.deepseek.core.chat.ChatCompletionModel;
 import io.github.pigmesh.ai.deepseek.core.chat.ChatCompletionRequest;
 import io.github.pigmesh.ai.deepseek.core.chat.ChatCompletionResponse;
+import io.github.pigmesh.ai.deepseek.core.shared.Usage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.SignalType;
 
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
-
-@Component
+/**
+ * DeepSeek翻译服务商，每个实例对应一个接入点（base url + api key），拥有独立的线程池与熔断器
+ */
 @Slf4j
-public class DeepSeekProcessor {
+public class DeepSeekProcessor implements TranslationProvider {
+
     // 共享的 DeepSeekClient 实例（线程安全，可复用）
-    private final DeepSeekClient deepSeekClient = DeepSeekClient.builder()
-            .baseUrl("https://api.deepseek.com")
-            .openAiApiKey("sk-19478ad2177e4948b570be248b531571")
-            .build();
+    private DeepSeekClient deepSeekClient;
+
+    private final String name;
+
+    private final String baseUrl;
+
+    private final String apiKey;
+
+    private final TranslateProperties.DeepSeek config;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 调用DeepSeek的线程池：线程数即最大并发数，排队数超过上限时直接拒绝
+     */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 与服务商速率限制匹配的令牌桶，未配置速率时为null
+     */
+    private TokenBucket rateLimiter;
+
+    /**
+     * 负责调用超时、重试退避与对冲请求的定时调度
+     */
+    private ScheduledExecutorService scheduler;
+
+    private CircuitBreaker circuitBreaker;
+
+    private final LatencyTracker latencyTracker = new LatencyTracker(512);
+
+    private Counter retryCounter;
+
+    private Counter hedgeCounter;
+
+    private Counter promptTokenCounter;
+
+    private Counter completionTokenCounter;
+
+    public DeepSeekProcessor(String name, String baseUrl, String apiKey,
+                             TranslateProperties.DeepSeek config, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void init() {
+        if (StringUtils.isBlank(apiKey)) {
+            log.error("翻译服务商[{}]未配置API key，请设置环境变量 DEEPSEEK_API_KEY 或 translate.providers[].api-key，"
+                    + "该服务商的调用将直接失败", name);
+        }
+        deepSeekClient = DeepSeekClient.builder()
+                .baseUrl(baseUrl)
+                .openAiApiKey(apiKey)
+                .connectTimeout(config.getConnectTimeout())
+                .readTimeout(config.getCallTimeout())
+                .build();
+        executor = new ThreadPoolExecutor(config.getMaxConcurrency(), config.getMaxConcurrency(),
+                60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                new CustomizableThreadFactory(name + "-"), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        if (config.getRateLimit() > 0) {
+            rateLimiter = new TokenBucket(config.getRateLimit());
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory(name + "-timer-"));
+
+        TranslateProperties.Breaker breaker = config.getBreaker();
+        circuitBreaker = new CircuitBreaker(name, breaker.getWindowSize(), breaker.getMinimumCalls(),
+                breaker.getFailureRateThreshold(), breaker.getOpenDuration().toMillis(), breaker.getHalfOpenCalls());
+
+        Gauge.builder("deepseek.circuit.state", circuitBreaker, b -> b.getState().getValue())
+                .description("熔断器状态：0关闭，1半开，2打开")
+                .tag("provider", name)
+                .register(meterRegistry);
+        Gauge.builder("deepseek.latency.p95", latencyTracker, t -> t.percentile(0.95))
+                .description("最近调用耗时的p95（毫秒）")
+                .tag("provider", name)
+                .register(meterRegistry);
+        retryCounter = Counter.builder("deepseek.retries").description("DeepSeek调用重试次数")
+                .tag("provider", name).register(meterRegistry);
+        hedgeCounter = Counter.builder("deepseek.hedges").description("DeepSeek对冲请求次数")
+                .tag("provider", name).register(meterRegistry);
+        Gauge.builder("deepseek.queue.size", executor, e -> e.getQueue().size())
+                .description("等待调用DeepSeek的排队请求数")
+                .tag("provider", name)
+                .register(meterRegistry);
+        Gauge.builder("deepseek.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在调用DeepSeek的请求数")
+                .tag("provider", name)
+                .register(meterRegistry);
+        promptTokenCounter = Counter.builder("deepseek.tokens").description("DeepSeek消耗的token数")
+                .tag("provider", name).tag("type", "prompt").register(meterRegistry);
+        completionTokenCounter = Counter.builder("deepseek.tokens").description("DeepSeek消耗的token数")
+                .tag("provider", name).tag("type", "completion").register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return StringUtils.isNotBlank(apiKey) && circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    @Override
+    public long getLatencyP95() {
+        return latencyTracker.percentile(0.95);
+    }
+
+    @Override
+    public int getLatencySamples() {
+        return latencyTracker.count();
+    }
 
     /**
-     * 处理单个问题并返回答案字符串
+     * 异步处理单个问题
+     * <p>
+     * 并发数与排队数都有上限，队列已满时返回的future立即以 UpstreamRejectedException 失败，
+     * 不会在上游变慢时无限堆积线程。每次调用有独立超时，临时性错误按指数退避重试；
+     * 开启对冲后，调用超过近期p95耗时仍未返回时会再发起一次相同请求，取先返回的结果；
+     * 熔断器打开期间直接快速失败。
+     *
+     * @param context 系统消息
+     * @param question 用户消息
+     * @return 调用结果
      */
-    public String processQuestion(String context, String question) {
+    @Override
+    public CompletableFuture<Completion> completeAsync(String context, String question) {
+        CompletableFuture<Completion> result = new CompletableFuture<>();
+        attempt(context, question, 1, result);
+        return result;
+    }
+
+    private void attempt(String context, String question, int attemptNo, CompletableFuture<Completion> result) {
+        if (StringUtils.isBlank(apiKey)) {
+            result.completeExceptionally(missingApiKey());
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            result.completeExceptionally(new UpstreamRejectedException("DeepSeek服务暂不可用，请稍后重试"));
+            return;
+        }
+        hedge(context, question).whenComplete((content, e) -> {
+            if (e == null) {
+                result.complete(content);
+                return;
+            }
+            Throwable cause = unwrap(e);
+            if (attemptNo <= config.getMaxRetries() && isTransient(cause)) {
+                long delay = backoff(attemptNo);
+                log.warn("deepSeek调用失败，{}ms后进行第{}次重试：{}", delay, attemptNo, cause.toString());
+                retryCounter.increment();
+                scheduler.schedule(() -> attempt(context, question, attemptNo + 1, result), delay, TimeUnit.MILLISECONDS);
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    /**
+     * 发起调用，开启对冲时在超过近期p95耗时后补发一次请求，任一成功即返回，全部失败才失败
+     */
+    private CompletableFuture<Completion> hedge(String context, String question) {
+        CompletableFuture<Completion> primary = submit(context, question);
+        TranslateProperties.Hedge hedgeConfig = config.getHedge();
+        if (!hedgeConfig.isEnabled() || latencyTracker.count() < hedgeConfig.getMinSamples()) {
+            return primary;
+        }
+        long delay = Math.max(hedgeConfig.getMinDelay().toMillis(), latencyTracker.percentile(hedgeConfig.getPercentile()));
+
+        CompletableFuture<Completion> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        BiConsumer<Completion, Throwable> onDone = (content, e) -> {
+            if (e == null) {
+                result.complete(content);
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        };
+        primary.whenComplete(onDone);
+        AtomicReference<CompletableFuture<Completion>> secondary = new AtomicReference<>();
+        ScheduledFuture<?> task = scheduler.schedule(() -> {
+            // 熔断器非关闭或本地已有排队时不再对冲，避免放大负载
+            if (result.isDone() || circuitBreaker.getState() != CircuitBreaker.State.CLOSED
+                    || !executor.getQueue().isEmpty()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            hedgeCounter.increment();
+            CompletableFuture<Completion> hedged = submit(context, question);
+            secondary.set(hedged);
+            hedged.whenComplete(onDone);
+            if (result.isDone()) {
+                hedged.cancel(false);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        // 任一请求先返回后取消另一个仍在进行的请求
+        result.whenComplete((content, e) -> {
+            task.cancel(false);
+            primary.cancel(false);
+            CompletableFuture<Completion> hedged = secondary.get();
+            if (hedged != null) {
+                hedged.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 提交一次实际调用，带超时控制，并把结果计入熔断器与耗时统计
+     * <p>
+     * 调用超时或被取消（对冲请求已先返回）时取消底层HTTP请求，不再占用连接与线程；
+     * 线程在调用结束前一直占用，线程数仍是对上游的最大并发数。
+     */
+    private CompletableFuture<Completion> submit(String context, String question) {
+        CompletableFuture<Completion> future = new CompletableFuture<>();
         try {
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model(ChatCompletionModel.DEEPSEEK_CHAT)
-                    .addSystemMessage(context)
-                    .addUserMessage(question)
-                    .temperature(0.8)
-                    .build();
-            // 使用复用的 DeepSeekClient 实例
-            ChatCompletionResponse response = deepSeekClient
-                    .chatCompletion(request)
-                    .execute();
-
-            return response.content();
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // 排队期间已超时
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    acquireRate();
+                    ResponseHandle handle = deepSeekClient.chatCompletion(buildRequest(context, question))
+                            .onResponse(response -> {
+                                latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                                try {
+                                    future.complete(toCompletion(response.content(), response.usage()));
+                                } catch (RuntimeException e) {
+                                    future.completeExceptionally(e);
+                                }
+                            })
+                            .onError(e -> {
+                                if (!future.isDone()) {
+                                    log.error("deepSeek调用出现异常", e);
+                                }
+                                future.completeExceptionally(e);
+                            })
+                            .execute();
+                    future.whenComplete((content, e) -> {
+                        if (e != null) {
+                            handle.cancel();
+                        }
+                    });
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(e);
+                } catch (ExecutionException | CancellationException e) {
+                    // 失败已记录在future中
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("DeepSeek[{}]请求排队数已达上限{}，拒绝新请求", name, config.getQueueCapacity());
+            future.completeExceptionally(new UpstreamRejectedException("DeepSeek请求过多，请稍后重试", e));
+        }
+
+        long timeout = config.getCallTimeout().toMillis();
+        ScheduledFuture<?> timer = scheduler.schedule(() -> future.completeExceptionally(
+                new TimeoutException("deepSeek调用超时（" + timeout + "ms）")), timeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((content, e) -> {
+            timer.cancel(false);
+            if (e == null) {
+                circuitBreaker.onSuccess();
+            } else if (e instanceof UpstreamRejectedException || e instanceof CancellationException) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 以流式方式处理问题，每收到一段增量内容回调一次 onDelta，结束时回调完整内容
+     * <p>
+     * 与非流式调用共用线程池：并发数与排队数受同样的上限约束，限流等待与流式读取都在池内线程上进行，
+     * 线程在流结束前一直占用；两段增量之间超过调用超时时间即失败。还没有收到任何增量时的临时性错误按退避重试，
+     * 句柄取消后停止上游生成。
+     *
+     * @param context 系统消息
+     * @param question 用户消息
+     * @param handle 取消句柄
+     * @param onDelta 增量内容回调
+     * @param onComplete 完成回调，参数为完整内容及token用量
+     * @param onError 异常回调
+     */
+    @Override
+    public void streamQuestion(String context, String question, StreamHandle handle, Consumer<String> onDelta,
+                               Consumer<Completion> onComplete, Consumer<Throwable> onError) {
+        if (StringUtils.isBlank(apiKey)) {
+            onError.accept(missingApiKey());
+            return;
+        }
+        streamAttempt(context, question, 1, handle, onDelta, onComplete, onError);
+    }
+
+    private void streamAttempt(String context, String question, int attemptNo, StreamHandle handle,
+                               Consumer<String> onDelta, Consumer<Completion> onComplete, Consumer<Throwable> onError) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        try {
+            executor.execute(() -> stream(context, question, attemptNo, handle, onDelta, onComplete, onError));
+        } catch (RejectedExecutionException e) {
+            log.warn("DeepSeek[{}]请求排队数已达上限{}，拒绝新请求", name, config.getQueueCapacity());
+            onError.accept(new UpstreamRejectedException("DeepSeek请求过多，请稍后重试", e));
+        }
+    }
+
+    /**
+     * 在调用线程池中执行一次流式调用，熔断器许可在成功、失败、被拒绝或取消时都会归还
+     */
+    private void stream(String context, String question, int attemptNo, StreamHandle handle,
+                        Consumer<String> onDelta, Consumer<Completion> onComplete, Consumer<Throwable> onError) {
+        if (handle.isCancelled()) {
+            // 排队期间客户端已断开
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            onError.accept(new UpstreamRejectedException("DeepSeek服务暂不可用，请稍后重试"));
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        AtomicReference<Usage> usage = new AtomicReference<>();
+        AtomicBoolean started = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+        Disposable.Swap subscription = Disposables.swap();
+        handle.onCancel(subscription::dispose);
+        try {
+            acquireRate();
+            subscription.update(deepSeekClient.chatFluxCompletion(buildRequest(context, question))
+                    .timeout(config.getCallTimeout())
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            circuitBreaker.onIgnored();
+                        }
+                        finished.countDown();
+                    })
+                    .subscribe(response -> {
+                        if (response != null && response.usage() != null) {
+                            usage.set(response.usage());
+                        }
+                        String delta = deltaOf(response);
+                        if (delta != null && !delta.isEmpty()) {
+                            started.set(true);
+                            content.append(delta);
+                            onDelta.accept(delta);
+                        }
+                    }, e -> {
+                        circuitBreaker.onFailure();
+                        if (!started.get() && attemptNo <= config.getMaxRetries() && isTransient(e)) {
+                            long delay = backoff(attemptNo);
+                            log.warn("deepSeek流式调用失败，{}ms后进行第{}次重试：{}", delay, attemptNo, e.toString());
+                            retryCounter.increment();
+                            scheduler.schedule(() -> streamAttempt(context, question, attemptNo + 1, handle,
+                                    onDelta, onComplete, onError), delay, TimeUnit.MILLISECONDS);
+                            return;
+                        }
+                        log.error("deepSeek流式调用出现异常", e);
+                        onError.accept(e);
+                    }, () -> {
+                        circuitBreaker.onSuccess();
+                        onComplete.accept(usage.get() != null
+                                ? toCompletion(content.toString(), usage.get())
+                                : estimatedCompletion(context, question, content.toString()));
+                    }));
+        } catch (UpstreamRejectedException e) {
+            circuitBreaker.onIgnored();
+            onError.accept(e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onIgnored();
+            onError.accept(e);
+            return;
         } catch (Exception e) {
-            // 异常时返回默认提示，并可记录日志
-            log.error("deepSeek调用出现异常", e);
-            throw new RuntimeException("deepSeek调用出现异常", e);
+            log.error("deepSeek流式调用出现异常", e);
+            circuitBreaker.onFailure();
+            onError.accept(e);
+            return;
+        }
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subscription.dispose();
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 组装调用结果并统计token用量，流式调用只有最后一段带有用量
+     */
+    private Completion toCompletion(String content, Usage usage) {
+        long promptTokens = usage == null || usage.promptTokens() == null ? 0 : usage.promptTokens();
+        long completionTokens = usage == null || usage.completionTokens() == null ? 0 : usage.completionTokens();
+        promptTokenCounter.increment(promptTokens);
+        completionTokenCounter.increment(completionTokens);
+        return new Completion(content, promptTokens, completionTokens);
+    }
+
+    /**
+     * 流式响应没有返回用量时按文本估算token数，避免流式翻译的用量与配额记为0
+     */
+    private Completion estimatedCompletion(String context, String question, String content) {
+        long promptTokens = TextSegmenter.estimateTokens(context) + TextSegmenter.estimateTokens(question);
+        long completionTokens = TextSegmenter.estimateTokens(content);
+        promptTokenCounter.increment(promptTokens);
+        completionTokenCounter.increment(completionTokens);
+        return new Completion(content, promptTokens, completionTokens);
+    }
+
+    /**
+     * 按配置的速率获取令牌，超过等待上限时拒绝
+     */
+    private void acquireRate() throws InterruptedException {
+        if (rateLimiter == null) {
+            return;
+        }
+        long timeout = config.getAcquireTimeout().toMillis();
+        if (!rateLimiter.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+            throw new UpstreamRejectedException("DeepSeek请求速率已达上限，请稍后重试");
+        }
+    }
+
+    /**
+     * 第attemptNo次重试前的等待时间：指数退避，并加入随机抖动，避免大量请求同时重试
+     */
+    private long backoff(int attemptNo) {
+        long backoff = Math.min(config.getRetryMaxBackoff().toMillis(),
+                config.getRetryBackoff().toMillis() << (attemptNo - 1));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private UpstreamRejectedException missingApiKey() {
+        return new UpstreamRejectedException("翻译服务商[" + name + "]未配置API key，请设置环境变量 DEEPSEEK_API_KEY");
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * 判断是否为值得重试的临时性错误：超时、网络异常、限流(429)与服务端错误(5xx)
+     * <p>
+     * 按异常类型与SDK返回的HTTP状态码判断，不解析异常信息
+     */
+    static boolean isTransient(Throwable e) {
+        if (e instanceof UpstreamRejectedException || e instanceof CancellationException) {
+            return false;
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof IOException) {
+                return true;
+            }
+            if (t instanceof OpenAiHttpException) {
+                int code = ((OpenAiHttpException) t).code();
+                return code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private ChatCompletionRequest buildRequest(String context, String question) {
+        return ChatCompletionRequest.builder()
+                .model(ChatCompletionModel.DEEPSEEK_CHAT)
+                .addSystemMessage(context)
+                .addUserMessage(question)
+                .temperature(0.8)
+                .build();
+    }
+
+    private static String deltaOf(ChatCompletionResponse response) {
+        if (response == null || response.choices() == null || response.choices().isEmpty()
+                || response.choices().get(0).delta() == null) {
+            return null;
         }
+        return response.choices().get(0).delta().content();
     }
 
 
@@ -0,0 +1,50 @@
+package com.example.translate.thirdpart;
+
+import java.util.Arrays;
+
+/**
+ * 记录最近若干次调用耗时，用于估算分位数（如p95）
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+
+    private int index;
+
+    private int count;
+
+    public LatencyTracker(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    public synchronized void record(long millis) {
+        samples[index] = millis;
+        index = (index + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * 计算分位数
+     *
+     * @param quantile 0~1之间，如0.95
+     * @return 没有样本时返回0
+     */
+    public long percentile(double quantile) {
+        long[] copy;
+        synchronized (this) {
+            if (count == 0) {
+                return 0;
+            }
+            copy = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(copy);
+        int pos = (int) Math.ceil(quantile * copy.length) - 1;
+        return copy[Math.min(copy.length - 1, Math.max(0, pos))];
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.translate.thirdpart;
+
+import com.example.translate.prompt.PromptRegistry;
+import com.example.translate.util.TextSegmenter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 本地离线桩服务商
+ * <p>
+ * 不访问网络，按固定延迟（可加随机抖动）返回确定性的结果，供压测和基准测试整条翻译链路使用：
+ * 译文为“[stub]”前缀加原文，含中文等非ASCII字母的文本返回 success=false，批量请求按索引返回数组。
+ * 延迟通过定时调度实现，不占用等待线程。
+ */
+@Slf4j
+public class LocalStubProvider implements TranslationProvider {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String TRANSLATION_PREFIX = "[stub]";
+
+    /**
+     * 流式返回时每个片段的字符数
+     */
+    private static final int STREAM_CHUNK_SIZE = 16;
+
+    private final String name;
+
+    private final Duration latency;
+
+    private final Duration jitter;
+
+    private ScheduledExecutorService scheduler;
+
+    public LocalStubProvider(String name, Duration latency, Duration jitter) {
+        this.name = name;
+        this.latency = latency == null ? Duration.ZERO : latency;
+        this.jitter = jitter == null ? Duration.ZERO : jitter;
+    }
+
+    @Override
+    public void init() {
+        scheduler = Executors.newScheduledThreadPool(2, new CustomizableThreadFactory(name + "-"));
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<Completion> completeAsync(String context, String question) {
+        CompletableFuture<Completion> future = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            try {
+                future.complete(completion(context, question, answer(question)));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }, delayMillis(), TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    @Override
+    public void streamQuestion(String context, String question, StreamHandle handle, Consumer<String> onDelta,
+                               Consumer<Completion> onComplete, Consumer<Throwable> onError) {
+        String content;
+        try {
+            content = answer(question);
+        } catch (Exception e) {
+            onError.accept(e);
+            return;
+        }
+        int chunks = Math.max(1, (content.length() + STREAM_CHUNK_SIZE - 1) / STREAM_CHUNK_SIZE);
+        long step = Math.max(1, delayMillis() / chunks);
+        AtomicReference<ScheduledFuture<?>> next = new AtomicReference<>();
+        handle.onCancel(() -> {
+            ScheduledFuture<?> task = next.get();
+            if (task != null) {
+                task.cancel(false);
+            }
+        });
+        emit(content, 0, chunks, step, handle, next, onDelta, completion(context, question, content), onComplete);
+    }
+
+    /**
+     * 逐段按顺序推送增量，每段推送后再调度下一段，保证增量顺序与内容一致
+     */
+    private void emit(String content, int index, int chunks, long step, StreamHandle handle,
+                      AtomicReference<ScheduledFuture<?>> next, Consumer<String> onDelta,
+                      Completion completion, Consumer<Completion> onComplete) {
+        next.set(scheduler.schedule(() -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            if (index == chunks) {
+                onComplete.accept(completion);
+                return;
+            }
+            onDelta.accept(content.substring(index * STREAM_CHUNK_SIZE,
+                    Math.min(content.length(), (index + 1) * STREAM_CHUNK_SIZE)));
+            emit(content, index + 1, chunks, step, handle, next, onDelta, completion, onComplete);
+        }, step, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 按字符数估算token用量，便于压测时验证用量统计与配额
+     */
+    private static Completion completion(String context, String question, String content) {
+        return new Completion(content, TextSegmenter.estimateTokens(context) + TextSegmenter.estimateTokens(question),
+                TextSegmenter.estimateTokens(content));
+    }
+
+    private long delayMillis() {
+        long base = latency.toMillis();
+        long extra = jitter.toMillis();
+        return extra > 0 ? base + ThreadLocalRandom.current().nextLong(extra + 1) : base;
+    }
+
+    /**
+     * 根据消息中的文本前缀生成单条或批量的确定性结果
+     */
+    private String answer(String question) throws Exception {
+        int batchIdx = question.indexOf(PromptRegistry.BATCH_PREFIX);
+        if (batchIdx >= 0) {
+            JsonNode items = OBJECT_MAPPER.readTree(question.substring(batchIdx + PromptRegistry.BATCH_PREFIX.length()));
+            ArrayNode result = OBJECT_MAPPER.createArrayNode();
+            for (JsonNode item : items) {
+                ObjectNode node = translate(item.path("text").asText());
+                node.set("index", item.get("index"));
+                result.add(node);
+            }
+            return OBJECT_MAPPER.writeValueAsString(result);
+        }
+        int textIdx = question.indexOf(PromptRegistry.TEXT_PREFIX);
+        String text = textIdx >= 0 ? question.substring(textIdx + PromptRegistry.TEXT_PREFIX.length()) : question;
+        return OBJECT_MAPPER.writeValueAsString(translate(text));
+    }
+
+    private ObjectNode translate(String text) {
+        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        boolean english = isEnglish(text);
+        node.put("success", english);
+        node.put("translation", english ? TRANSLATION_PREFIX + text : "");
+        node.putArray("vocabulary");
+        return node;
+    }
+
+    private static boolean isEnglish(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c > 0x7F && Character.isLetter(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.translate.thirdpart;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.UpstreamRejectedException;
+import com.example.translate.usage.ClientContext;
+import com.example.translate.usage.UsageTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 按配置在多个服务商/接入点之间路由
+ * <p>
+ * 根据 translate.providers 创建服务商实例，未配置时使用 translate.deepseek 中的默认接入点。
+ * weighted 策略按权重随机选择；latency 策略以“权重 / 近期p95耗时”作为有效权重，偏向更快的接入点，
+ * 样本不足的服务商（包括不统计耗时的本地桩）按其它服务商p95的中位数计算，不会因为还没有耗时数据而被优先选择。
+ * 熔断中的服务商不参与路由，被选中的服务商快速拒绝时依次尝试其它服务商；流式调用在发出第一段增量之前失败时同样切换。
+ * 每次调用的token用量与耗时记到发起调用的线程上的调用方（ClientContext）名下。
+ */
+@Component
+@Slf4j
+public class RoutingTranslationProvider implements TranslationProvider {
+
+    public static final String TYPE_DEEPSEEK = "deepseek";
+
+    public static final String TYPE_STUB = "stub";
+
+    public static final String STRATEGY_LATENCY = "latency";
+
+    @Autowired
+    private TranslateProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UsageTracker usageTracker;
+
+    private List<TranslationProvider> providers = Collections.emptyList();
+
+    private List<Integer> weights = Collections.emptyList();
+
+    @PostConstruct
+    @Override
+    public void init() {
+        List<TranslateProperties.Provider> configs = properties.getProviders();
+        if (configs == null || configs.isEmpty()) {
+            TranslateProperties.Provider config = new TranslateProperties.Provider();
+            config.setName(TYPE_DEEPSEEK);
+            configs = Collections.singletonList(config);
+        }
+        List<TranslationProvider> created = new ArrayList<>(configs.size());
+        List<Integer> createdWeights = new ArrayList<>(configs.size());
+        for (TranslateProperties.Provider config : configs) {
+            TranslationProvider provider = create(config);
+            provider.init();
+            created.add(provider);
+            createdWeights.add(Math.max(0, config.getWeight()));
+            log.info("已加载翻译服务商：{}，类型：{}，权重：{}", config.getName(), config.getType(), config.getWeight());
+        }
+        providers = Collections.unmodifiableList(created);
+        weights = Collections.unmodifiableList(createdWeights);
+    }
+
+    @PreDestroy
+    @Override
+    public void destroy() {
+        for (TranslationProvider provider : providers) {
+            provider.destroy();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "router";
+    }
+
+    @Override
+    public CompletableFuture<Completion> completeAsync(String context, String question) {
+        String clientId = ClientContext.current();
+        long start = System.nanoTime();
+        return tryProviders(route(), 0, context, question).whenComplete((completion, e) -> {
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (e == null) {
+                usageTracker.record(clientId, completion, latency);
+            } else {
+                usageTracker.recordFailure(clientId, latency);
+            }
+        });
+    }
+
+    @Override
+    public void streamQuestion(String context, String question, StreamHandle handle, Consumer<String> onDelta,
+                               Consumer<Completion> onComplete, Consumer<Throwable> onError) {
+        List<TranslationProvider> candidates = route();
+        if (candidates.isEmpty()) {
+            onError.accept(new UpstreamRejectedException("没有可用的翻译服务商"));
+            return;
+        }
+        String clientId = ClientContext.current();
+        long start = System.nanoTime();
+        streamFrom(candidates, 0, context, question, handle, onDelta, completion -> {
+            usageTracker.record(clientId, completion, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            onComplete.accept(completion);
+        }, e -> {
+            usageTracker.recordFailure(clientId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            onError.accept(e);
+        });
+    }
+
+    /**
+     * 流式调用：还没有向调用方发出任何增量时失败，切换到下一个服务商；已经发出增量后无法无缝续接，直接返回错误。
+     * 切换后的服务商在同一个取消句柄上登记取消动作
+     */
+    private void streamFrom(List<TranslationProvider> candidates, int index, String context, String question,
+                            StreamHandle handle, Consumer<String> onDelta, Consumer<Completion> onComplete,
+                            Consumer<Throwable> onError) {
+        TranslationProvider provider = candidates.get(index);
+        AtomicBoolean started = new AtomicBoolean();
+        provider.streamQuestion(context, question, handle, delta -> {
+            started.set(true);
+            onDelta.accept(delta);
+        }, onComplete, e -> {
+            if (!started.get() && index + 1 < candidates.size() && !handle.isCancelled()) {
+                log.warn("翻译服务商[{}]流式调用失败，切换到[{}]：{}", provider.getName(),
+                        candidates.get(index + 1).getName(), e.toString());
+                streamFrom(candidates, index + 1, context, question, handle, onDelta, onComplete, onError);
+            } else {
+                onError.accept(e);
+            }
+        });
+    }
+
+    @Override
+    public boolean isAvailable() {
+        for (TranslationProvider provider : providers) {
+            if (provider.isAvailable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<TranslationProvider> getProviders() {
+        return providers;
+    }
+
+    /**
+     * 被拒绝（熔断、排队已满）时尝试下一个服务商，其它错误直接返回
+     */
+    private CompletableFuture<Completion> tryProviders(List<TranslationProvider> candidates, int index,
+                                                       String context, String question) {
+        if (index >= candidates.size()) {
+            CompletableFuture<Completion> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new UpstreamRejectedException("没有可用的翻译服务商，请稍后重试"));
+            return failed;
+        }
+        TranslationProvider provider = candidates.get(index);
+        CompletableFuture<Completion> result = new CompletableFuture<>();
+        provider.completeAsync(context, question).whenComplete((completion, e) -> {
+            if (e == null) {
+                result.complete(completion);
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof UpstreamRejectedException && index + 1 < candidates.size()) {
+                log.warn("翻译服务商[{}]拒绝请求，切换到[{}]：{}", provider.getName(),
+                        candidates.get(index + 1).getName(), cause.getMessage());
+                tryProviders(candidates, index + 1, context, question).whenComplete((c, ex) -> {
+                    if (ex == null) {
+                        result.complete(c);
+                    } else {
+                        result.completeExceptionally(ex);
+                    }
+                });
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 按策略给出本次调用的服务商尝试顺序：首选按权重随机抽取，其余可用服务商按权重降序作为备选
+     */
+    private List<TranslationProvider> route() {
+        boolean latencyAware = StringUtils.equalsIgnoreCase(properties.getRouting().getStrategy(), STRATEGY_LATENCY);
+        List<TranslationProvider> candidates = new ArrayList<>(providers.size());
+        List<Integer> candidateWeights = new ArrayList<>(providers.size());
+        for (int i = 0; i < providers.size(); i++) {
+            TranslationProvider provider = providers.get(i);
+            int weight = weights.get(i);
+            if (weight > 0 && provider.isAvailable()) {
+                candidates.add(provider);
+                candidateWeights.add(weight);
+            }
+        }
+        long prior = latencyAware ? medianP95(candidates) : 0;
+        List<Double> effective = new ArrayList<>(candidates.size());
+        double total = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            TranslationProvider provider = candidates.get(i);
+            double w = candidateWeights.get(i);
+            if (prior > 0) {
+                long p95 = isMeasured(provider) ? provider.getLatencyP95() : prior;
+                w = w * 1000D / Math.max(1L, p95);
+            }
+            effective.add(w);
+            total += w;
+        }
+        if (candidates.isEmpty()) {
+            // 全部不可用时仍按配置顺序尝试，由服务商自身快速失败
+            for (int i = 0; i < providers.size(); i++) {
+                if (weights.get(i) > 0) {
+                    candidates.add(providers.get(i));
+                }
+            }
+            return candidates;
+        }
+
+        double pick = ThreadLocalRandom.current().nextDouble(total);
+        int chosen = candidates.size() - 1;
+        for (int i = 0; i < candidates.size(); i++) {
+            pick -= effective.get(i);
+            if (pick < 0) {
+                chosen = i;
+                break;
+            }
+        }
+        List<TranslationProvider> ordered = new ArrayList<>(candidates.size());
+        ordered.add(candidates.get(chosen));
+        List<Integer> rest = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (i != chosen) {
+                rest.add(i);
+            }
+        }
+        rest.sort((a, b) -> Double.compare(effective.get(b), effective.get(a)));
+        for (Integer i : rest) {
+            ordered.add(candidates.get(i));
+        }
+        return ordered;
+    }
+
+    private boolean isMeasured(TranslationProvider provider) {
+        return provider.getLatencySamples() >= Math.max(1, properties.getRouting().getMinSamples());
+    }
+
+    /**
+     * 样本数足够的服务商p95的中位数，作为样本不足的服务商的中性估计；没有服务商样本足够时返回0
+     */
+    private long medianP95(List<TranslationProvider> candidates) {
+        List<Long> measured = new ArrayList<>(candidates.size());
+        for (TranslationProvider provider : candidates) {
+            if (isMeasured(provider)) {
+                measured.add(Math.max(1L, provider.getLatencyP95()));
+            }
+        }
+        if (measured.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(measured);
+        return measured.get(measured.size() / 2);
+    }
+
+    private TranslationProvider create(TranslateProperties.Provider config) {
+        if (StringUtils.isBlank(config.getName())) {
+            throw new IllegalStateException("翻译服务商必须配置name");
+        }
+        String type = StringUtils.defaultIfBlank(config.getType(), TYPE_DEEPSEEK);
+        if (TYPE_STUB.equalsIgnoreCase(type)) {
+            return new LocalStubProvider(config.getName(), config.getLatency(), config.getJitter());
+        }
+        if (TYPE_DEEPSEEK.equalsIgnoreCase(type)) {
+            TranslateProperties.DeepSeek deepseek = properties.getDeepseek();
+            return new DeepSeekProcessor(config.getName(),
+                    StringUtils.defaultIfBlank(config.getBaseUrl(), deepseek.getBaseUrl()),
+                    StringUtils.defaultIfBlank(config.getApiKey(), deepseek.getApiKey()),
+                    deepseek, meterRegistry);
+        }
+        throw new IllegalStateException("不支持的翻译服务商类型：" + type);
+    }
+}
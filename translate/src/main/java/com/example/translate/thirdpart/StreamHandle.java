@@ -0,0 +1,51 @@
+package com.example.translate.thirdpart;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 流式调用的取消句柄
+ * <p>
+ * 客户端断开或SSE超时后调用 {@link #cancel()} 停止上游生成，不再继续消耗token。
+ * 实际调用可能还在排队、或因重试/切换服务商而更换，每次发起新的调用时通过 {@link #onCancel(Runnable)} 替换取消动作；
+ * 已取消后设置的动作会立即执行。
+ */
+public class StreamHandle {
+
+    private static final Runnable NOOP = () -> {
+    };
+
+    /**
+     * 当前调用的取消动作，已取消时为null
+     */
+    private final AtomicReference<Runnable> canceller = new AtomicReference<>(NOOP);
+
+    /**
+     * 设置取消当前调用的动作，替换之前的动作；句柄已取消时立即执行
+     */
+    public void onCancel(Runnable action) {
+        while (true) {
+            Runnable current = canceller.get();
+            if (current == null) {
+                action.run();
+                return;
+            }
+            if (canceller.compareAndSet(current, action)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 取消当前调用，重复调用无副作用
+     */
+    public void cancel() {
+        Runnable action = canceller.getAndSet(null);
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return canceller.get() == null;
+    }
+}
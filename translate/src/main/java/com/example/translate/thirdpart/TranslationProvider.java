@@ -0,0 +1,97 @@
+package com.example.translate.thirdpart;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * 翻译服务商（大模型接入点）SPI
+ * <p>
+ * 内置实现：DeepSeekProcessor（DeepSeek接口）与 LocalStubProvider（本地离线桩，用于压测和基准测试），
+ * 由 RoutingTranslationProvider 按配置在多个服务商/接入点之间路由。
+ */
+public interface TranslationProvider {
+
+    /**
+     * 服务商名称，对应配置中的 name
+     */
+    String getName();
+
+    /**
+     * 异步处理单个问题，结果中带有本次调用的token用量
+     *
+     * @param context 系统消息
+     * @param question 用户消息
+     * @return 调用结果
+     */
+    CompletableFuture<Completion> completeAsync(String context, String question);
+
+    /**
+     * 异步处理单个问题
+     *
+     * @param context 系统消息
+     * @param question 用户消息
+     * @return 答案字符串
+     */
+    default CompletableFuture<String> processQuestionAsync(String context, String question) {
+        return completeAsync(context, question).thenApply(Completion::getContent);
+    }
+
+    /**
+     * 以流式方式处理问题
+     *
+     * 实现在发起调用前通过 {@link StreamHandle#onCancel(Runnable)} 登记取消动作，句柄取消后停止上游生成，
+     * 不再回调 onComplete/onError
+     *
+     * @param context 系统消息
+     * @param question 用户消息
+     * @param handle 取消句柄
+     * @param onDelta 增量内容回调
+     * @param onComplete 完成回调，参数为完整内容及token用量
+     * @param onError 异常回调
+     */
+    void streamQuestion(String context, String question, StreamHandle handle, Consumer<String> onDelta,
+                        Consumer<Completion> onComplete, Consumer<Throwable> onError);
+
+    /**
+     * 处理单个问题并返回答案字符串
+     */
+    default String processQuestion(String context, String question) {
+        try {
+            return processQuestionAsync(context, question).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("调用" + getName() + "出现异常", cause);
+        }
+    }
+
+    /**
+     * 当前是否可用（如熔断器未打开），路由时优先选择可用的服务商
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * 最近调用耗时的p95（毫秒），没有统计时返回0
+     */
+    default long getLatencyP95() {
+        return 0;
+    }
+
+    /**
+     * 计算 {@link #getLatencyP95()} 所用的耗时样本数，不统计耗时的服务商（如本地桩）返回0
+     */
+    default int getLatencySamples() {
+        return 0;
+    }
+
+    default void init() {
+    }
+
+    default void destroy() {
+    }
+}
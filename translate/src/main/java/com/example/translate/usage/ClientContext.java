@@ -0,0 +1,34 @@
+package com.example.translate.usage;
+
+/**
+ * 当前线程正在处理的调用方
+ * <p>
+ * 由 ClientQuotaInterceptor 在请求线程上设置，异步任务在执行线程上重新设置；
+ * 调用大模型时在发起调用的线程上读取，用于把token用量记到对应调用方名下。
+ */
+public final class ClientContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ClientContext() {
+    }
+
+    /**
+     * @return 当前调用方，未设置时返回null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void set(String clientId) {
+        if (clientId == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(clientId);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
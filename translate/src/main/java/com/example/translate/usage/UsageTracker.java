@@ -0,0 +1,316 @@
+package com.example.translate.usage;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.QuotaExceededException;
+import com.example.translate.thirdpart.Completion;
+import com.example.translate.util.TokenBucket;
+import com.example.translate.util.TranslateResultParser;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 调用方用量统计与配额
+ * <p>
+ * 每个调用方的请求数、大模型调用次数、token用量与耗时累加在 LongAdder 中，记录时无锁；
+ * 定期把上一周期的增量汇总写入文件或日志后清零。配置了每分钟请求数/token数上限时，
+ * 请求进入前按令牌桶判断是否放行，token在调用结束后按实际用量扣减。
+ * <p>
+ * 只有未关联调用方的内部调用（clientId为null）不受配额限制，豁免与调用方名称无关。
+ * 合并到其他请求上的相同翻译（SingleFlight跟随者）没有产生大模型调用，不扣减token，只计入coalesced。
+ */
+@Component
+@Slf4j
+public class UsageTracker {
+
+    /**
+     * 不经过http请求发起的调用（如基准测试、内部任务）在统计中使用的名称，不能作为调用方名称配置
+     */
+    public static final String INTERNAL = "internal";
+
+    @Autowired
+    private TranslateProperties properties;
+
+    private final ConcurrentHashMap<String, ClientUsage> clients = new ConcurrentHashMap<>();
+
+    private Map<String, TranslateProperties.Client> clientsByKey = Collections.emptyMap();
+
+    private Map<String, TranslateProperties.Client> clientsByName = Collections.emptyMap();
+
+    /**
+     * 内部调用的用量，不限制配额
+     */
+    private final ClientUsage internalUsage = new ClientUsage(INTERNAL, null, null);
+
+    @PostConstruct
+    public void init() {
+        Map<String, TranslateProperties.Client> byKey = new HashMap<>();
+        Map<String, TranslateProperties.Client> byName = new HashMap<>();
+        for (TranslateProperties.Client client : properties.getUsage().getClients()) {
+            if (StringUtils.isAnyBlank(client.getName(), client.getApiKey())) {
+                throw new IllegalStateException("translate.usage.clients 必须配置name与api-key");
+            }
+            if (INTERNAL.equals(client.getName())) {
+                throw new IllegalStateException("translate.usage.clients 的name不能使用保留名称：" + INTERNAL);
+            }
+            byKey.put(client.getApiKey(), client);
+            byName.put(client.getName(), client);
+        }
+        clientsByKey = byKey;
+        clientsByName = byName;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return properties.getUsage().isEnabled();
+    }
+
+    /**
+     * 确定调用方标识：已配置的API key使用其名称，未携带或未配置的API key一律按客户端IP统计
+     * <p>
+     * 只有配置过的API key拥有独立的配额，随意更换未配置的请求头取值不能绕过按IP的配额
+     *
+     * @param apiKey 请求头中的API key，可以为空
+     * @param remoteAddr 客户端IP
+     * @return 调用方标识，不包含API key明文
+     */
+    public String resolveClient(String apiKey, String remoteAddr) {
+        TranslateProperties.Client client = StringUtils.isBlank(apiKey) ? null : clientsByKey.get(apiKey);
+        return client != null ? client.getName() : "ip:" + remoteAddr;
+    }
+
+    /**
+     * 请求进入时调用：统计请求数，超出配额时抛出 QuotaExceededException
+     */
+    public void acquire(String clientId) {
+        if (!isEnabled()) {
+            return;
+        }
+        ClientUsage usage = usageOf(clientId);
+        usage.requests.increment();
+        // 先判断token余额，避免消耗了请求配额却因token超限被拒绝
+        if (usage.tokenBucket != null && !usage.tokenBucket.hasAvailable()) {
+            usage.rejected.increment();
+            throw new QuotaExceededException("token用量已超出配额，请稍后重试", retryAfterSeconds(usage.tokenBucket));
+        }
+        if (usage.requestBucket != null && !usage.requestBucket.tryAcquire()) {
+            usage.rejected.increment();
+            throw new QuotaExceededException("请求过于频繁，请稍后重试", retryAfterSeconds(usage.requestBucket));
+        }
+    }
+
+    /**
+     * 记录一次成功的大模型调用，token按实际用量从配额中扣减
+     */
+    public void record(String clientId, Completion completion, long latencyMillis) {
+        if (!isEnabled()) {
+            return;
+        }
+        ClientUsage usage = usageOf(clientId);
+        usage.calls.increment();
+        usage.latencyMillis.add(latencyMillis);
+        usage.promptTokens.add(completion.getPromptTokens());
+        usage.completionTokens.add(completion.getCompletionTokens());
+        if (usage.tokenBucket != null) {
+            usage.tokenBucket.consume(completion.totalTokens());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("调用方[{}]完成一次调用，提示token：{}，生成token：{}，耗时：{}ms", usage.clientId,
+                    completion.getPromptTokens(), completion.getCompletionTokens(), latencyMillis);
+        }
+    }
+
+    /**
+     * 记录一次合并到其他相同请求上的翻译，共享结果不产生调用，因此不扣减token
+     */
+    public void recordCoalesced(String clientId) {
+        if (!isEnabled()) {
+            return;
+        }
+        usageOf(clientId).coalesced.increment();
+    }
+
+    /**
+     * 记录一次失败的大模型调用
+     */
+    public void recordFailure(String clientId, long latencyMillis) {
+        if (!isEnabled()) {
+            return;
+        }
+        ClientUsage usage = usageOf(clientId);
+        usage.calls.increment();
+        usage.failures.increment();
+        usage.latencyMillis.add(latencyMillis);
+    }
+
+    /**
+     * 把上一周期各调用方的用量增量写入文件或日志，并释放长时间空闲的调用方
+     */
+    @Scheduled(fixedDelayString = "${translate.usage.flush-interval:60000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        long idleBefore = now - properties.getUsage().getIdleTimeout().toMillis();
+        List<String> lines = new ArrayList<>();
+        Iterator<ClientUsage> it = clients.values().iterator();
+        while (it.hasNext()) {
+            ClientUsage usage = it.next();
+            if (!drainTo(usage, now, lines) && usage.lastSeen < idleBefore) {
+                it.remove();
+            }
+        }
+        drainTo(internalUsage, now, lines);
+        if (lines.isEmpty()) {
+            return;
+        }
+        String file = properties.getUsage().getFlushFile();
+        if (StringUtils.isBlank(file)) {
+            lines.forEach(line -> log.info("调用方用量：{}", line));
+            return;
+        }
+        Path path = Paths.get(file).toAbsolutePath();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            log.error("写入用量文件失败：{}，本周期用量改为输出到日志", path, e);
+            lines.forEach(line -> log.info("调用方用量：{}", line));
+        }
+    }
+
+    /**
+     * 取出调用方上一周期的用量并序列化追加到lines
+     *
+     * @return 上一周期没有任何用量时返回false
+     */
+    private static boolean drainTo(ClientUsage usage, long now, List<String> lines) {
+        Map<String, Object> record = usage.drain(now);
+        if (record == null) {
+            return false;
+        }
+        try {
+            lines.add(TranslateResultParser.OBJECT_MAPPER.writeValueAsString(record));
+        } catch (IOException e) {
+            log.warn("序列化用量记录失败：{}", record, e);
+        }
+        return true;
+    }
+
+    private ClientUsage usageOf(String clientId) {
+        ClientUsage usage = clientId == null ? internalUsage : clients.computeIfAbsent(clientId, this::create);
+        usage.lastSeen = System.currentTimeMillis();
+        return usage;
+    }
+
+    private ClientUsage create(String clientId) {
+        TranslateProperties.Usage config = properties.getUsage();
+        TranslateProperties.Client client = clientsByName.get(clientId);
+        long requestsPerMinute = client != null && client.getRequestsPerMinute() != null
+                ? client.getRequestsPerMinute() : config.getRequestsPerMinute();
+        long tokensPerMinute = client != null && client.getTokensPerMinute() != null
+                ? client.getTokensPerMinute() : config.getTokensPerMinute();
+        return new ClientUsage(clientId,
+                requestsPerMinute > 0 ? perMinute(requestsPerMinute) : null,
+                tokensPerMinute > 0 ? perMinute(tokensPerMinute) : null);
+    }
+
+    /**
+     * 每分钟上限换算为令牌桶：按秒匀速补充，允许一分钟的额度一次性突发
+     */
+    private static TokenBucket perMinute(long limit) {
+        return new TokenBucket(limit / 60D, limit);
+    }
+
+    private static long retryAfterSeconds(TokenBucket bucket) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(bucket.millisUntil(1) + 999));
+    }
+
+    private static final class ClientUsage {
+
+        private final String clientId;
+
+        private final TokenBucket requestBucket;
+
+        private final TokenBucket tokenBucket;
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder rejected = new LongAdder();
+
+        private final LongAdder calls = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder coalesced = new LongAdder();
+
+        private final LongAdder promptTokens = new LongAdder();
+
+        private final LongAdder completionTokens = new LongAdder();
+
+        private final LongAdder latencyMillis = new LongAdder();
+
+        private volatile long lastSeen = System.currentTimeMillis();
+
+        ClientUsage(String clientId, TokenBucket requestBucket, TokenBucket tokenBucket) {
+            this.clientId = clientId;
+            this.requestBucket = requestBucket;
+            this.tokenBucket = tokenBucket;
+        }
+
+        /**
+         * 取出上一周期的增量并清零，没有任何用量时返回null
+         */
+        Map<String, Object> drain(long now) {
+            long requestCount = requests.sumThenReset();
+            long rejectedCount = rejected.sumThenReset();
+            long callCount = calls.sumThenReset();
+            long failureCount = failures.sumThenReset();
+            long coalescedCount = coalesced.sumThenReset();
+            long prompt = promptTokens.sumThenReset();
+            long completion = completionTokens.sumThenReset();
+            long latency = latencyMillis.sumThenReset();
+            if (requestCount == 0 && callCount == 0 && coalescedCount == 0) {
+                return null;
+            }
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("time", now);
+            record.put("client", clientId);
+            record.put("requests", requestCount);
+            record.put("rejected", rejectedCount);
+            record.put("calls", callCount);
+            record.put("failures", failureCount);
+            record.put("coalesced", coalescedCount);
+            record.put("prompt_tokens", prompt);
+            record.put("completion_tokens", completion);
+            record.put("avg_latency_ms", callCount == 0 ? 0 : latency / callCount);
+            return record;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.translate.util;
 
 import com.example.translate.model.word.DynamicTable;
-import com.example.translate.model.word.TableStyle;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.xwpf.usermodel.*;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlOptions;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.*;
 
 import java.io.*;
@@ -16,6 +18,8 @@ import java.util.*;
 
 public class AdvancedWordGenerator {
 
+    private static final String WORDPROCESSINGML_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
     /**
      * 生成Word文档（模板替换 + 动态内容）
      */
@@ -74,6 +78,33 @@ public class AdvancedWordGenerator {
         }
     }
 
+    /**
+     * 生成Word文档并写入输出流，输出流不会被关闭
+     */
+    public static void generateWord(InputStream templateStream, OutputStream outputStream,
+                                    Map<String, String> textData, List<DynamicTable> dynamicTables) throws IOException {
+        Objects.requireNonNull(templateStream, "templateStream cannot be null");
+        Objects.requireNonNull(outputStream, "outputStream cannot be null");
+
+        try (InputStream in = templateStream;
+             XWPFDocument document = new XWPFDocument(in)) {
+            replaceTemplateText(document, textData == null ? Collections.emptyMap() : textData);
+            insertDynamicTables(document, dynamicTables == null ? Collections.emptyList() : dynamicTables);
+            document.write(new FilterOutputStream(outputStream) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    // 避免 XWPFDocument.write 关闭调用方的输出流，只flush
+                    flush();
+                }
+            });
+        }
+    }
+
     /**
      * 模板文本替换
      */
@@ -154,6 +185,66 @@ public class AdvancedWordGenerator {
         }
     }
 
+    /**
+     * 段落中可以翻译替换的文本：普通run中 w:t 的内容依次拼接
+     * <p>
+     * 含域（页码、目录等 fldChar/instrText/fldSimple）或超链接的段落返回null：这些内容的位置与文本交织在一起，
+     * 换成译文后无法保持原有位置，整段保留原文。
+     *
+     * @return 不适合替换时返回null
+     */
+    public static String translatableText(XWPFParagraph paragraph) {
+        CTP ctp = paragraph.getCTP();
+        if (ctp.sizeOfFldSimpleArray() > 0 || ctp.sizeOfHyperlinkArray() > 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (XWPFRun run : paragraph.getRuns()) {
+            CTR ctr = run.getCTR();
+            if (run.getClass() != XWPFRun.class || ctr.sizeOfFldCharArray() > 0 || ctr.sizeOfInstrTextArray() > 0) {
+                return null;
+            }
+            for (CTText t : ctr.getTArray()) {
+                text.append(t.getStringValue());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * 用新文本替换段落中的文字：译文写入第一个含文字的run，其余run中的 w:t 清空，
+     * 图片、制表符、换行、脚注引用等非文字内容保持不动；文本中的换行转为段内换行。
+     * 只应用于 {@link #translatableText(XWPFParagraph)} 不为null的段落
+     */
+    public static void replaceParagraphText(XWPFParagraph paragraph, String text) {
+        XWPFRun target = null;
+        for (XWPFRun run : paragraph.getRuns()) {
+            CTR ctr = run.getCTR();
+            if (ctr.sizeOfTArray() == 0) {
+                continue;
+            }
+            if (target == null) {
+                target = run;
+            }
+            for (int i = ctr.sizeOfTArray() - 1; i >= 0; i--) {
+                if (run == target && i == 0) {
+                    ctr.getTArray(0).setStringValue("");
+                } else {
+                    ctr.removeT(i);
+                }
+            }
+        }
+        if (target == null) {
+            return;
+        }
+        String[] lines = (text == null ? "" : text).split("\r?\n", -1);
+        target.setText(lines[0], 0);
+        for (int i = 1; i < lines.length; i++) {
+            target.addBreak();
+            target.setText(lines[i], i);
+        }
+    }
+
     /**
      * 复制run的样式
      */
@@ -215,112 +306,66 @@ public class AdvancedWordGenerator {
     }
 
     /**
-     * 在占位符位置插入表格
+     * 在占位符位置插入表格，替换占位符所在段落
      */
     private static void insertTableAtPlaceholder(XWPFDocument document, DynamicTable dynamicTable) {
         String placeholder = "${" + dynamicTable.getPlaceholder() + "}";
 
         // 查找占位符所在的段落
-        for (int i = 0; i < document.getParagraphs().size(); i++) {
-            XWPFParagraph paragraph = document.getParagraphs().get(i);
+        for (XWPFParagraph paragraph : document.getParagraphs()) {
             if (paragraph.getText().contains(placeholder)) {
+                try (XmlCursor cursor = paragraph.getCTP().newCursor()) {
+                    XWPFTable table = document.insertNewTbl(cursor);
+                    table.getCTTbl().set(buildTable(dynamicTable));
+                }
                 // 移除占位符段落
                 document.removeBodyElement(document.getPosOfParagraph(paragraph));
-
-                // 创建表格
-                XWPFTable table = document.createTable();
-
-                // 设置表格样式
-                applyTableStyle(table, dynamicTable.getStyle());
-
-                // 创建表头
-                createTableHeader(table, dynamicTable.getHeaders());
-
-                // 创建表格数据行
-                createTableRows(table, dynamicTable.getRows());
-
                 break;
             }
         }
     }
 
     /**
-     * 应用表格样式
+     * 一次性生成整个表格的CT XML再解析，不逐行逐单元格调用 createRow/setText（那样每行都要重新包装XWPF对象，
+     * 行数多时明显变慢）；表格结构与 {@link CompiledWordTemplate} 生成的表格一致。
+     * <p>
+     * 写入后XWPFTable对象中缓存的行不再对应文档内容，生成后直接写出文档即可，不要再通过该对象修改表格。
      */
-    private static void applyTableStyle(XWPFTable table, TableStyle style) {
-        if (style == null) return;
-
-        // 设置表格宽度
-        table.setWidth(style.getWidth());
-
-    }
-
-    /**
-     * 创建表头
-     */
-    private static void createTableHeader(XWPFTable table, List<String> headers) {
-        if (headers == null || headers.isEmpty()) return;
-
-        XWPFTableRow headerRow = table.getRow(0);
-        if (headerRow == null) {
-            headerRow = table.createRow();
-        }
-
-        // 确保有足够的单元格
-        while (headerRow.getTableCells().size() < headers.size()) {
-            headerRow.createCell();
-        }
-
-        // 设置表头内容
-        for (int i = 0; i < headers.size(); i++) {
-            XWPFTableCell cell = headerRow.getCell(i);
-            if (cell != null) {
-                cell.setText(headers.get(i));
-
-                // 设置表头样式
-                for (XWPFParagraph paragraph : cell.getParagraphs()) {
-                    for (XWPFRun run : paragraph.getRuns()) {
-                        run.setBold(true);
-                        run.setFontSize(12);
-                    }
-                }
-            }
+    static CTTbl buildTable(DynamicTable dynamicTable) {
+        StringBuilder xml = new StringBuilder(256 + estimateSize(dynamicTable));
+        try {
+            CompiledWordTemplate.appendTable(xml, dynamicTable);
+            // 独立解析的片段需要声明命名空间，插入到 "<w:tbl" 之后
+            xml.insert("<w:tbl".length(), " xmlns:w=\"" + WORDPROCESSINGML_NS + "\"");
+            // 去掉外层 w:tbl 元素，解析结果即为表格内容，set 到 CTTbl 时不会再嵌套一层
+            XmlOptions options = new XmlOptions();
+            options.setLoadReplaceDocumentElement(null);
+            return CTTbl.Factory.parse(xml.toString(), options);
+        } catch (IOException | XmlException e) {
+            throw new IllegalStateException("生成表格失败", e);
         }
     }
 
-
-    /**
-     * 创建数据行
-     */
-    private static void createTableRows(XWPFTable table, List<List<String>> rows) {
-        if (rows == null || rows.isEmpty()) return;
-
-        for (List<String> rowData : rows) {
-            XWPFTableRow row = table.createRow();
-
-            for (int i = 0; i < rowData.size(); i++) {
-                XWPFTableCell cell = row.getCell(i);
-                if (cell != null) {
-                    cell.setText(rowData.get(i));
+    private static int estimateSize(DynamicTable dynamicTable) {
+        int size = 0;
+        if (dynamicTable.getRows() != null) {
+            for (List<String> row : dynamicTable.getRows()) {
+                size += 32;
+                if (row != null) {
+                    for (String cell : row) {
+                        size += 160 + (cell == null ? 0 : cell.length());
+                    }
                 }
             }
         }
+        return size;
     }
 
     /**
      * 在文档末尾添加表格
      */
     public static void addTableToDocument(XWPFDocument document, DynamicTable dynamicTable) {
-        // 创建表格
         XWPFTable table = document.createTable();
-
-        // 设置表格样式
-        applyTableStyle(table, dynamicTable.getStyle());
-
-        // 创建表头
-        createTableHeader(table, dynamicTable.getHeaders());
-
-        // 创建数据行
-        createTableRows(table, dynamicTable.getRows());
+        table.getCTTbl().set(buildTable(dynamicTable));
     }
 }
@@ -0,0 +1,180 @@
+package com.example.translate.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho–Corasick多模式匹配
+ * <p>
+ * 构建后不可变，可并发使用。匹配不区分大小写，连续空白视为一个空格，只匹配完整单词
+ * （匹配两侧不能是字母或数字），一次扫描即可找出文本中出现的全部模式，耗时与文本长度线性相关。
+ */
+public class AhoCorasick {
+
+    /**
+     * 转移表：(状态 << 16 | 字符) -> 下一状态
+     */
+    private final Map<Long, Integer> transitions;
+
+    private final int[] fail;
+
+    /**
+     * 在该状态结束的模式下标，没有时为-1
+     */
+    private final int[] output;
+
+    /**
+     * 沿失败链的下一个有输出的状态，没有时为0
+     */
+    private final int[] outputLink;
+
+    private final int[] patternLengths;
+
+    private AhoCorasick(Map<Long, Integer> transitions, int[] fail, int[] output, int[] outputLink, int[] patternLengths) {
+        this.transitions = transitions;
+        this.fail = fail;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.patternLengths = patternLengths;
+    }
+
+    /**
+     * 构建匹配器
+     *
+     * @param patterns 模式列表，匹配结果为模式在列表中的下标；归一化后为空的模式被忽略
+     */
+    public static AhoCorasick build(List<String> patterns) {
+        Map<Long, Integer> transitions = new HashMap<>();
+        List<Integer> outputs = new ArrayList<>();
+        outputs.add(-1);
+        int[] lengths = new int[patterns.size()];
+        for (int p = 0; p < patterns.size(); p++) {
+            char[] pattern = normalize(patterns.get(p));
+            lengths[p] = pattern.length;
+            if (pattern.length == 0) {
+                continue;
+            }
+            int state = 0;
+            for (char c : pattern) {
+                Integer next = transitions.get(key(state, c));
+                if (next == null) {
+                    next = outputs.size();
+                    outputs.add(-1);
+                    transitions.put(key(state, c), next);
+                }
+                state = next;
+            }
+            if (outputs.get(state) < 0) {
+                outputs.set(state, p);
+            }
+        }
+
+        int states = outputs.size();
+        int[] fail = new int[states];
+        int[] output = new int[states];
+        int[] outputLink = new int[states];
+        List<List<long[]>> children = new ArrayList<>(states);
+        for (int i = 0; i < states; i++) {
+            output[i] = outputs.get(i);
+            children.add(new ArrayList<>());
+        }
+        for (Map.Entry<Long, Integer> t : transitions.entrySet()) {
+            long k = t.getKey();
+            children.get((int) (k >>> 16)).add(new long[]{k & 0xFFFF, t.getValue()});
+        }
+        // 按层次遍历计算失败指针
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (long[] child : children.get(0)) {
+            queue.add((int) child[1]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (long[] child : children.get(state)) {
+                char c = (char) child[0];
+                int next = (int) child[1];
+                int f = fail[state];
+                Integer target = null;
+                while (true) {
+                    target = transitions.get(key(f, c));
+                    if (target != null || f == 0) {
+                        break;
+                    }
+                    f = fail[f];
+                }
+                fail[next] = target != null && target != next ? target : 0;
+                outputLink[next] = output[fail[next]] >= 0 ? fail[next] : outputLink[fail[next]];
+                queue.add(next);
+            }
+        }
+        return new AhoCorasick(transitions, fail, output, outputLink, lengths);
+    }
+
+    /**
+     * 查找文本中出现的模式
+     *
+     * @param text 文本
+     * @return 出现的模式下标，按首次出现的结束位置排序，不重复
+     */
+    public List<Integer> findAll(String text) {
+        List<Integer> found = new ArrayList<>();
+        if (text == null || fail.length == 1) {
+            return found;
+        }
+        char[] chars = normalize(text);
+        boolean[] seen = new boolean[patternLengths.length];
+        int state = 0;
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            Integer next;
+            while ((next = transitions.get(key(state, c))) == null && state != 0) {
+                state = fail[state];
+            }
+            state = next == null ? 0 : next;
+            int end = i + 1;
+            for (int s = output[state] >= 0 ? state : outputLink[state]; s != 0; s = outputLink[s]) {
+                int p = output[s];
+                int start = end - patternLengths[p];
+                if (!seen[p] && isBoundary(chars, start - 1) && isBoundary(chars, end)) {
+                    seen[p] = true;
+                    found.add(p);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean isBoundary(char[] chars, int index) {
+        return index < 0 || index >= chars.length || !Character.isLetterOrDigit(chars[index]);
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    /**
+     * 转为小写，连续空白合并为一个空格，去除首尾空白
+     */
+    private static char[] normalize(String text) {
+        char[] result = new char[text.length()];
+        int length = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = length > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                result[length++] = ' ';
+                pendingSpace = false;
+            }
+            result[length++] = Character.toLowerCase(c);
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+}
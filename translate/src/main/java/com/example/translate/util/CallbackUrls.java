@@ -0,0 +1,119 @@
+package com.example.translate.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 回调地址校验，防止通过callback_url访问服务所在的内网（SSRF）
+ * <p>
+ * 只允许http/https地址；配置了白名单时只允许白名单内的主机，否则解析主机的全部地址，
+ * 任一地址为回环、链路本地、内网、组播或未指定地址时拒绝。
+ */
+public final class CallbackUrls {
+
+    private CallbackUrls() {
+    }
+
+    /**
+     * 校验回调地址，不合法时抛出 IllegalArgumentException
+     *
+     * @param url          回调地址
+     * @param allowedHosts 主机白名单，为空时不限制主机但禁止内网地址；以"."开头的条目匹配其所有子域名
+     */
+    public static void validate(String url, List<String> allowedHosts) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("callback_url格式不正确：" + url);
+        }
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            throw new IllegalArgumentException("callback_url只支持http/https地址：" + url);
+        }
+        String host = uri.getHost();
+        if (StringUtils.isBlank(host)) {
+            throw new IllegalArgumentException("callback_url缺少主机名：" + url);
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        if (allowedHosts != null && !allowedHosts.isEmpty()) {
+            if (!isAllowed(host, allowedHosts)) {
+                throw new IllegalArgumentException("callback_url的主机不在白名单内：" + host);
+            }
+            return;
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("callback_url的主机无法解析：" + host);
+        }
+        for (InetAddress address : addresses) {
+            if (isInternal(address)) {
+                throw new IllegalArgumentException("callback_url不能指向内网地址：" + host);
+            }
+        }
+    }
+
+    private static boolean isAllowed(String host, List<String> allowedHosts) {
+        for (String allowed : allowedHosts) {
+            if (StringUtils.isBlank(allowed)) {
+                continue;
+            }
+            String entry = allowed.trim().toLowerCase(Locale.ROOT);
+            if (entry.startsWith(".") ? host.endsWith(entry) || host.equals(entry.substring(1)) : host.equals(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否为不能作为回调目标的地址
+     */
+    static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            // 0.0.0.0/8 与运营商级NAT 100.64.0.0/10
+            return first == 0 || (first == 100 && second >= 64 && second < 128);
+        }
+        if (address instanceof Inet6Address) {
+            // 唯一本地地址 fc00::/7
+            if ((bytes[0] & 0xfe) == 0xfc) {
+                return true;
+            }
+            // IPv4兼容/映射地址按内嵌的IPv4地址判断
+            boolean embedsIpv4 = true;
+            for (int i = 0; i < 10; i++) {
+                embedsIpv4 &= bytes[i] == 0;
+            }
+            boolean mapped = (bytes[10] & 0xff) == 0xff && (bytes[11] & 0xff) == 0xff;
+            if (embedsIpv4 && (mapped || (bytes[10] == 0 && bytes[11] == 0))) {
+                try {
+                    byte[] ipv4 = new byte[]{bytes[12], bytes[13], bytes[14], bytes[15]};
+                    return isInternal(InetAddress.getByAddress(ipv4));
+                } catch (UnknownHostException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,526 @@
+package com.example.translate.util;
+
+import com.example.translate.model.word.DynamicTable;
+import com.example.translate.model.word.TableStyle;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 预编译的Word模板
+ * <p>
+ * 启动时读取一次模板（docx的各个zip部件），把 document.xml、页眉、页脚中含 ${key} 占位符的段落切分出来并记录位置；
+ * 生成文档时只需原样复制静态部件、在记录好的位置写入替换后的段落或表格，不再解析模板或遍历 XWPF 对象模型。
+ * <p>
+ * 替换规则与 {@link AdvancedWordGenerator} 保持一致：段落内有数据的占位符被替换，整段合并为一个沿用第一个run样式的run；
+ * 正文（不在表格内）中包含表格占位符的段落被整段替换为表格。
+ */
+public class CompiledWordTemplate {
+
+    private static final String DOCUMENT_PART = "word/document.xml";
+
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
+
+    private static final Pattern HEADER_FOOTER_PART = Pattern.compile("word/(header|footer)\\d*\\.xml");
+
+    /**
+     * 按模板中的顺序保存的zip部件
+     */
+    private final List<Part> parts;
+
+    /**
+     * 模板内容摘要，模板变化时生成的文档也随之变化
+     */
+    private final String fingerprint;
+
+    private CompiledWordTemplate(List<Part> parts, String fingerprint) {
+        this.parts = parts;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param templateStream docx模板，方法内会关闭
+     * @return 编译后的模板，线程安全，可在多个请求间共享
+     */
+    public static CompiledWordTemplate compile(InputStream templateStream) throws IOException {
+        Objects.requireNonNull(templateStream, "templateStream cannot be null");
+        List<Part> parts = new ArrayList<>();
+        StringBuilder digest = new StringBuilder();
+        try (ZipInputStream zip = new ZipInputStream(templateStream)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String name = entry.getName();
+                byte[] bytes = StreamUtils.copyToByteArray(zip);
+                digest.append(name).append(':').append(TextHashUtils.sha256Hex(bytes)).append('\n');
+                if (DOCUMENT_PART.equals(name) || HEADER_FOOTER_PART.matcher(name).matches()) {
+                    String xml = new String(bytes, StandardCharsets.UTF_8);
+                    parts.add(new Part(name, null, compilePart(xml, DOCUMENT_PART.equals(name))));
+                } else {
+                    parts.add(new Part(name, bytes, null));
+                }
+            }
+        }
+        if (parts.stream().noneMatch(p -> DOCUMENT_PART.equals(p.name))) {
+            throw new IOException("模板中缺少 " + DOCUMENT_PART);
+        }
+        return new CompiledWordTemplate(Collections.unmodifiableList(parts), TextHashUtils.sha256Hex(digest.toString()));
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 生成Word文档到指定路径，失败时删除未写完的文件
+     */
+    public void render(String outputPath, Map<String, String> textData, List<DynamicTable> dynamicTables)
+            throws IOException {
+        Objects.requireNonNull(outputPath, "outputPath cannot be null");
+        Path target = Paths.get(outputPath).toAbsolutePath().normalize();
+        Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            render(os, textData, dynamicTables);
+        } catch (IOException | RuntimeException ex) {
+            try {
+                Files.deleteIfExists(target);
+            } catch (Exception ignore) {
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * 生成Word文档并写入输出流，输出流不会被关闭
+     *
+     * @param out 输出流
+     * @param textData 占位符名称 -> 替换文本
+     * @param dynamicTables 需要插入的表格
+     */
+    public void render(OutputStream out, Map<String, String> textData, List<DynamicTable> dynamicTables)
+            throws IOException {
+        Map<String, String> safeTextData = textData == null ? Collections.emptyMap() : textData;
+        Map<String, DynamicTable> tables = new HashMap<>();
+        if (dynamicTables != null) {
+            for (DynamicTable table : dynamicTables) {
+                tables.putIfAbsent(table.getPlaceholder(), table);
+            }
+        }
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // 需要替换的部件直接以流的方式写入zip，不在内存中拼出完整xml，内存占用与文档大小无关
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        for (Part part : parts) {
+            zip.putNextEntry(new ZipEntry(part.name));
+            if (part.bytes != null) {
+                zip.write(part.bytes);
+            } else {
+                for (Object segment : part.segments) {
+                    if (segment instanceof String) {
+                        writer.write((String) segment);
+                    } else {
+                        ((ParagraphSlot) segment).render(writer, safeTextData, tables);
+                    }
+                }
+                writer.flush();
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * 把部件xml切分为静态片段（String）和占位符段落（ParagraphSlot）
+     *
+     * @param bodyPart 是否是正文部件，只有正文中不在表格内的段落可以替换为表格
+     */
+    static List<Object> compilePart(String xml, boolean bodyPart) {
+        List<Object> segments = new ArrayList<>();
+        int last = 0;
+        int pos = 0;
+        int tableDepth = 0;
+        int start;
+        while ((start = indexOfTag(xml, "<w:p", pos)) >= 0) {
+            tableDepth += count(xml, "<w:tbl>", pos, start) - count(xml, "</w:tbl>", pos, start);
+            int tagEnd = xml.indexOf('>', start);
+            if (tagEnd < 0) {
+                break;
+            }
+            if (xml.charAt(tagEnd - 1) == '/') {
+                pos = tagEnd + 1;
+                continue;
+            }
+            int end = xml.indexOf("</w:p>", tagEnd);
+            if (end < 0) {
+                break;
+            }
+            int nested = indexOfTag(xml, "<w:p", tagEnd);
+            if (nested >= 0 && nested < end) {
+                // 段落中嵌套了段落（如文本框），只处理内层段落
+                pos = tagEnd + 1;
+                continue;
+            }
+            end += "</w:p>".length();
+            String paragraph = xml.substring(start, end);
+            String text = paragraphText(paragraph);
+            if (text.contains("${")) {
+                segments.add(xml.substring(last, start));
+                segments.add(new ParagraphSlot(paragraph, tagEnd + 1 - start, text, bodyPart && tableDepth == 0));
+                last = end;
+            }
+            pos = end;
+        }
+        segments.add(xml.substring(last));
+        return segments;
+    }
+
+    /**
+     * 拼接段落中全部 w:t 的文本
+     */
+    static String paragraphText(String paragraph) {
+        StringBuilder text = new StringBuilder();
+        int pos = 0;
+        int start;
+        while ((start = indexOfTag(paragraph, "<w:t", pos)) >= 0) {
+            int tagEnd = paragraph.indexOf('>', start);
+            if (tagEnd < 0) {
+                break;
+            }
+            if (paragraph.charAt(tagEnd - 1) == '/') {
+                pos = tagEnd + 1;
+                continue;
+            }
+            int end = paragraph.indexOf("</w:t>", tagEnd);
+            if (end < 0) {
+                break;
+            }
+            text.append(unescape(paragraph.substring(tagEnd + 1, end)));
+            pos = end + "</w:t>".length();
+        }
+        return text.toString();
+    }
+
+    /**
+     * 查找元素开始标签，要求标签名完整匹配（"<w:p" 不匹配 "<w:pPr"）
+     */
+    private static int indexOfTag(String xml, String tag, int from) {
+        int index = xml.indexOf(tag, from);
+        while (index >= 0) {
+            int next = index + tag.length();
+            if (next < xml.length()) {
+                char c = xml.charAt(next);
+                if (c == '>' || c == '/' || Character.isWhitespace(c)) {
+                    return index;
+                }
+            }
+            index = xml.indexOf(tag, next);
+        }
+        return -1;
+    }
+
+    /**
+     * 返回完整的子元素（如 w:pPr），不存在时返回空串
+     */
+    private static String element(String xml, String tag, int from) {
+        int start = indexOfTag(xml, tag, from);
+        if (start != from) {
+            return "";
+        }
+        int tagEnd = xml.indexOf('>', start);
+        if (xml.charAt(tagEnd - 1) == '/') {
+            return xml.substring(start, tagEnd + 1);
+        }
+        int end = xml.indexOf("</" + tag.substring(1) + ">", tagEnd);
+        return end < 0 ? "" : xml.substring(start, end + tag.length() + 2);
+    }
+
+    private static int count(String xml, String token, int from, int to) {
+        int count = 0;
+        int index = xml.indexOf(token, from);
+        while (index >= 0 && index < to) {
+            count++;
+            index = xml.indexOf(token, index + token.length());
+        }
+        return count;
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int semi = c == '&' ? text.indexOf(';', i) : -1;
+            if (semi < 0) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            String entity = text.substring(i + 1, semi);
+            if ("amp".equals(entity)) {
+                sb.append('&');
+            } else if ("lt".equals(entity)) {
+                sb.append('<');
+            } else if ("gt".equals(entity)) {
+                sb.append('>');
+            } else if ("quot".equals(entity)) {
+                sb.append('"');
+            } else if ("apos".equals(entity)) {
+                sb.append('\'');
+            } else if (entity.startsWith("#x")) {
+                sb.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+            } else if (entity.startsWith("#")) {
+                sb.appendCodePoint(Integer.parseInt(entity.substring(1)));
+            } else {
+                sb.append(text, i, semi + 1);
+            }
+            i = semi + 1;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 写入文本：转义xml特殊字符，换行写为 w:br，制表符写为 w:tab，并去除xml不允许的控制字符
+     * 调用前需已打开 &lt;w:t xml:space="preserve"&gt;，不需要转义的连续字符整段写入
+     */
+    static void appendText(Appendable xml, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        int plain = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '\n':
+                    replacement = "</w:t><w:br/><w:t xml:space=\"preserve\">";
+                    break;
+                case '\t':
+                    replacement = "</w:t><w:tab/><w:t xml:space=\"preserve\">";
+                    break;
+                default:
+                    if (c >= 0x20 && c != 0xFFFE && c != 0xFFFF) {
+                        continue;
+                    }
+                    // 其它控制字符（含\r）直接丢弃
+                    replacement = "";
+            }
+            xml.append(text, plain, i).append(replacement);
+            plain = i + 1;
+        }
+        xml.append(text, plain, text.length());
+    }
+
+    /**
+     * 生成表格xml，结构与 {@link AdvancedWordGenerator} 通过XWPF生成的表格一致：首行为加粗的表头，其余为数据行
+     */
+    static void appendTable(Appendable xml, DynamicTable table) throws IOException {
+        TableStyle style = table.getStyle() == null ? new TableStyle() : table.getStyle();
+        List<String> headers = table.getHeaders() == null ? Collections.emptyList() : table.getHeaders();
+        int columns = Math.max(1, headers.size());
+
+        xml.append("<w:tbl><w:tblPr>");
+        appendTableWidth(xml, style.getWidth());
+        xml.append("<w:tblBorders>");
+        for (String border : new String[]{"top", "left", "bottom", "right", "insideH", "insideV"}) {
+            xml.append("<w:").append(border)
+                    .append(" w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"000000\"/>");
+        }
+        xml.append("</w:tblBorders>");
+        if (!style.isAutoLayout()) {
+            xml.append("<w:tblLayout w:type=\"fixed\"/>");
+        }
+        xml.append("</w:tblPr><w:tblGrid>");
+        for (int i = 0; i < columns; i++) {
+            xml.append("<w:gridCol/>");
+        }
+        xml.append("</w:tblGrid>");
+
+        String headerRunProperties = "<w:rPr><w:b/><w:sz w:val=\"" + style.getHeaderFontSize() * 2
+                + "\"/><w:szCs w:val=\"" + style.getHeaderFontSize() * 2 + "\"/></w:rPr>";
+        xml.append("<w:tr>");
+        for (int i = 0; i < columns; i++) {
+            appendCell(xml, i < headers.size() ? headers.get(i) : null, headerRunProperties, style.getHeaderBgColor());
+        }
+        xml.append("</w:tr>");
+
+        if (table.getRows() != null) {
+            for (List<String> row : table.getRows()) {
+                xml.append("<w:tr>");
+                for (int i = 0; i < columns; i++) {
+                    appendCell(xml, row != null && i < row.size() ? row.get(i) : null, "", null);
+                }
+                xml.append("</w:tr>");
+            }
+        }
+        xml.append("</w:tbl>");
+    }
+
+    private static void appendCell(Appendable xml, String text, String runProperties, String fill)
+            throws IOException {
+        xml.append("<w:tc><w:tcPr><w:tcW w:w=\"0\" w:type=\"auto\"/>");
+        if (StringUtils.isNotBlank(fill)) {
+            xml.append("<w:shd w:val=\"clear\" w:color=\"auto\" w:fill=\"").append(StringUtils.remove(fill, '#'))
+                    .append("\"/>");
+        }
+        xml.append("</w:tcPr>");
+        if (StringUtils.isEmpty(text)) {
+            xml.append("<w:p/></w:tc>");
+            return;
+        }
+        xml.append("<w:p><w:r>").append(runProperties).append("<w:t xml:space=\"preserve\">");
+        appendText(xml, text);
+        xml.append("</w:t></w:r></w:p></w:tc>");
+    }
+
+    /**
+     * 表格宽度：auto、百分比（如90%）或以twip为单位的数值
+     */
+    private static void appendTableWidth(Appendable xml, String width) throws IOException {
+        String value = StringUtils.trimToEmpty(width);
+        if (value.endsWith("%")) {
+            try {
+                int pct = (int) Math.round(Double.parseDouble(value.substring(0, value.length() - 1)) * 50);
+                xml.append("<w:tblW w:w=\"").append(String.valueOf(pct)).append("\" w:type=\"pct\"/>");
+                return;
+            } catch (NumberFormatException ignore) {
+            }
+        } else if (StringUtils.isNumeric(value) && !value.isEmpty()) {
+            xml.append("<w:tblW w:w=\"").append(value).append("\" w:type=\"dxa\"/>");
+            return;
+        }
+        xml.append("<w:tblW w:w=\"0\" w:type=\"auto\"/>");
+    }
+
+    /**
+     * 模板中的zip部件，静态部件保存原始字节，需要替换的部件保存切分后的片段
+     */
+    private static final class Part {
+        private final String name;
+        private final byte[] bytes;
+        private final List<Object> segments;
+
+        private Part(String name, byte[] bytes, List<Object> segments) {
+            this.name = name;
+            this.bytes = bytes;
+            this.segments = segments;
+        }
+    }
+
+    /**
+     * 含占位符的段落
+     */
+    private static final class ParagraphSlot {
+        /**
+         * 原始段落xml，没有可替换的数据时原样输出
+         */
+        private final String original;
+        /**
+         * 段落开始标签、段落属性、第一个run的属性，替换后的段落沿用这些格式
+         */
+        private final String openTag;
+        private final String paragraphProperties;
+        private final String runProperties;
+        /**
+         * 段落文本按占位符切分：偶数位置为普通文本，奇数位置为占位符名称
+         */
+        private final List<String> pieces;
+        /**
+         * 是否可以整段替换为表格
+         */
+        private final boolean tableAnchor;
+
+        private ParagraphSlot(String paragraph, int openTagLength, String text, boolean tableAnchor) {
+            this.original = paragraph;
+            this.openTag = paragraph.substring(0, openTagLength);
+            this.paragraphProperties = element(paragraph, "<w:pPr", openTagLength);
+            int runStart = indexOfTag(paragraph, "<w:r", openTagLength + paragraphProperties.length());
+            if (runStart >= 0) {
+                int runTagEnd = paragraph.indexOf('>', runStart);
+                this.runProperties = element(paragraph, "<w:rPr", runTagEnd + 1);
+            } else {
+                this.runProperties = "";
+            }
+            this.pieces = split(text);
+            this.tableAnchor = tableAnchor;
+        }
+
+        private static List<String> split(String text) {
+            List<String> pieces = new ArrayList<>();
+            int pos = 0;
+            int start;
+            while ((start = text.indexOf("${", pos)) >= 0) {
+                int end = text.indexOf('}', start + 2);
+                if (end < 0) {
+                    break;
+                }
+                pieces.add(text.substring(pos, start));
+                pieces.add(text.substring(start + 2, end));
+                pos = end + 1;
+            }
+            pieces.add(text.substring(pos));
+            return pieces;
+        }
+
+        private void render(Appendable xml, Map<String, String> textData, Map<String, DynamicTable> tables)
+                throws IOException {
+            boolean hasData = false;
+            for (int i = 1; i < pieces.size(); i += 2) {
+                String key = pieces.get(i);
+                if (tableAnchor && tables.containsKey(key)) {
+                    appendTable(xml, tables.get(key));
+                    return;
+                }
+                hasData |= textData.containsKey(key);
+            }
+            if (!hasData) {
+                xml.append(original);
+                return;
+            }
+            xml.append(openTag).append(paragraphProperties).append("<w:r>").append(runProperties)
+                    .append("<w:t xml:space=\"preserve\">");
+            for (int i = 0; i < pieces.size(); i++) {
+                String piece = pieces.get(i);
+                if (i % 2 == 0) {
+                    appendText(xml, piece);
+                } else if (textData.containsKey(piece)) {
+                    appendText(xml, textData.get(piece));
+                } else {
+                    appendText(xml, "${" + piece + "}");
+                }
+            }
+            xml.append("</w:t></w:r></w:p>");
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.translate.util;
+
+import com.example.translate.config.TranslateProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 本地英文预检
+ * <p>
+ * 调用大模型前在进程内过滤明显不是英文的输入，省去一次完整的DeepSeek往返：
+ * 逐个码点扫描（不分配对象），中日韩文字或其它非拉丁字母超过一定比例时判定为非英文；
+ * 单个希腊字母（如 α-adrenergic、β 版本）和微符号 µ 在英文科技文本中很常见，按符号处理。
+ * 文本足够长时再看带重音符号的拉丁字母比例，过滤法语、西班牙语等文本；字母三元组在英文模型下的
+ * 平均对数概率只用来过滤乱码——缩写、人名地名较多的英文与意大利语等的分数互相重叠，无法区分。
+ * 判断不明确的输入一律放行，仍由大模型按prompt规则判断。
+ */
+public class EnglishDetector {
+
+    /**
+     * 预检结论，reason 为返回给调用方的原因说明
+     */
+    public enum Verdict {
+        ENGLISH(null),
+        CJK("包含中日韩文字"),
+        NON_LATIN("包含非拉丁字母"),
+        ACCENTED("带重音符号的字母过多，疑似其它拉丁语系语言"),
+        NOT_ENGLISH("字母组合不符合英文特征");
+
+        private final String reason;
+
+        Verdict(String reason) {
+            this.reason = reason;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * 微符号 µ（U+00B5），与希腊字母 μ 一样按符号处理
+     */
+    private static final int MICRO_SIGN = 0x00B5;
+
+    /**
+     * 模型字母表：0为词边界，1-26为a-z
+     */
+    private static final int ALPHABET = 27;
+
+    /**
+     * 加性平滑系数，未出现过的三元组按该计数估计概率
+     */
+    private static final double SMOOTHING = 0.1D;
+
+    /**
+     * 三元组 (c1, c2, c3) 在英文中的条件对数概率 log2 P(c3 | c1 c2)，下标为 (c1 * 27 + c2) * 27 + c3
+     */
+    private final float[] logProb;
+
+    private final TranslateProperties.Detect config;
+
+    private EnglishDetector(float[] logProb, TranslateProperties.Detect config) {
+        this.logProb = logProb;
+        this.config = config;
+    }
+
+    /**
+     * 从三元组计数文件构建检测器，文件每行为“三元组\t次数”，词边界用下划线表示
+     *
+     * @param trigramCounts 三元组计数
+     * @param config 判定阈值
+     */
+    public static EnglishDetector load(InputStream trigramCounts, TranslateProperties.Detect config) throws IOException {
+        long[] counts = new long[ALPHABET * ALPHABET * ALPHABET];
+        long[] prefixCounts = new long[ALPHABET * ALPHABET];
+        BufferedReader reader = new BufferedReader(new InputStreamReader(trigramCounts, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int tab = line.indexOf('\t');
+            if (tab != 3) {
+                continue;
+            }
+            int prefix = symbol(line.charAt(0)) * ALPHABET + symbol(line.charAt(1));
+            long count = Long.parseLong(line.substring(tab + 1).trim());
+            counts[prefix * ALPHABET + symbol(line.charAt(2))] += count;
+            prefixCounts[prefix] += count;
+        }
+        float[] logProb = new float[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            double p = (counts[i] + SMOOTHING) / (prefixCounts[i / ALPHABET] + SMOOTHING * ALPHABET);
+            logProb[i] = (float) (Math.log(p) / Math.log(2));
+        }
+        return new EnglishDetector(logProb, config);
+    }
+
+    /**
+     * 判断文本是否明显不是英文
+     *
+     * @param text 待翻译文本
+     * @return 预检结论，不能确定时返回 ENGLISH
+     */
+    public Verdict detect(CharSequence text) {
+        if (text == null) {
+            return Verdict.ENGLISH;
+        }
+        int letters = 0;
+        int cjk = 0;
+        int otherScript = 0;
+        int accented = 0;
+        int trigrams = 0;
+        double score = 0;
+        int greekRun = 0;
+        int prev2 = 0;
+        int prev1 = 0;
+        int length = text.length();
+        for (int i = 0; i <= length; ) {
+            int c = 0;
+            if (i < length) {
+                int cp = Character.codePointAt(text, i);
+                i += Character.charCount(cp);
+                if (cp >= 0x80 && Character.UnicodeScript.of(cp) == Character.UnicodeScript.GREEK
+                        && Character.isLetter(cp)) {
+                    greekRun++;
+                } else {
+                    if (greekRun > 1) {
+                        // 连续的希腊字母是希腊文单词，单个的按符号处理
+                        otherScript += greekRun;
+                        letters += greekRun;
+                    }
+                    greekRun = 0;
+                }
+                if (cp >= 'a' && cp <= 'z') {
+                    c = cp - 'a' + 1;
+                } else if (cp >= 'A' && cp <= 'Z') {
+                    c = cp - 'A' + 1;
+                } else if (cp >= 0x80 && cp != MICRO_SIGN && greekRun == 0 && Character.isLetter(cp)) {
+                    Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+                    if (script == Character.UnicodeScript.LATIN) {
+                        accented++;
+                    } else if (isCjk(script)) {
+                        cjk++;
+                    } else {
+                        otherScript++;
+                    }
+                    letters++;
+                }
+                if (c > 0) {
+                    letters++;
+                } else if (prev1 == 0) {
+                    // 连续的非字母字符只算一个词边界
+                    continue;
+                }
+            } else {
+                // 文本结尾补一个词边界
+                if (greekRun > 1) {
+                    otherScript += greekRun;
+                    letters += greekRun;
+                }
+                i++;
+            }
+            // 只统计词内的三元组，与模型的构建方式一致
+            if (prev1 != 0) {
+                score += logProb[(prev2 * ALPHABET + prev1) * ALPHABET + c];
+                trigrams++;
+            }
+            prev2 = prev1;
+            prev1 = c;
+        }
+
+        int foreign = cjk + otherScript;
+        if (foreign > 0 && foreign > config.getMaxForeignRatio() * letters) {
+            return cjk >= otherScript ? Verdict.CJK : Verdict.NON_LATIN;
+        }
+        if (letters < config.getMinLetters()) {
+            return Verdict.ENGLISH;
+        }
+        if (accented > config.getMaxAccentedRatio() * letters) {
+            return Verdict.ACCENTED;
+        }
+        if (trigrams > 0 && score / trigrams < config.getMinScore()) {
+            return Verdict.NOT_ENGLISH;
+        }
+        return Verdict.ENGLISH;
+    }
+
+    private static boolean isCjk(Character.UnicodeScript script) {
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static int symbol(char c) {
+        return c >= 'a' && c <= 'z' ? c - 'a' + 1 : 0;
+    }
+}
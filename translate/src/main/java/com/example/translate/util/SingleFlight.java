@@ -0,0 +1,81 @@
+package com.example.translate.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 合并相同键的并发调用
+ * <p>
+ * 同一个键同时只执行一次调用：第一个请求执行调用，执行期间到达的相同请求直接共享它的结果（包括异常），
+ * 调用结束后移除该键，之后的请求重新执行。只合并同时进行的调用，不缓存结果。
+ *
+ * @param <K> 键类型
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * 执行调用，相同键已有调用在进行时共享其结果
+     *
+     * @param key 键
+     * @param call 实际调用，可以是同步计算（返回已完成的future）也可以是异步调用
+     * @return 调用结果
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        executed.increment();
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, flight);
+            flight.completeExceptionally(e);
+            return flight;
+        }
+        result.whenComplete((value, e) -> {
+            // 先移除再完成，保证结果可见后到达的请求会重新执行调用
+            calls.remove(key, flight);
+            if (e != null) {
+                flight.completeExceptionally(e);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight;
+    }
+
+    /**
+     * 正在进行的调用数
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    /**
+     * 实际执行的调用次数
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * 共享了其他调用结果的次数
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+}
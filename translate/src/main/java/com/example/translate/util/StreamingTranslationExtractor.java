@@ -0,0 +1,127 @@
+package com.example.translate.util;
+
+/**
+ * 从流式返回的json片段中增量提取 translation 字段的内容
+ * <p>
+ * DeepSeek返回形如 {"success": true, "translation": "...", "vocabulary": [...]} 的json，
+ * 流式模式下每次只收到其中一小段；本类逐段喂入，只输出 translation 字符串中新解码出的文本。
+ * 非线程安全，每个请求使用独立实例。
+ */
+public class StreamingTranslationExtractor {
+
+    private static final String FIELD = "\"translation\"";
+
+    private enum State {
+        SEEK_FIELD, SEEK_COLON, SEEK_QUOTE, IN_VALUE, DONE
+    }
+
+    private State state = State.SEEK_FIELD;
+
+    /**
+     * 尚未匹配完字段名时保留的尾部片段
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * 跨片段未解码完的转义序列（反斜杠或不完整的unicode转义）
+     */
+    private final StringBuilder escape = new StringBuilder();
+
+    /**
+     * 喂入一段新内容
+     *
+     * @param chunk 流式返回的增量内容
+     * @return 本次新解码出的翻译文本，没有时返回空字符串
+     */
+    public String feed(String chunk) {
+        if (chunk == null || chunk.isEmpty() || state == State.DONE) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder();
+        int i = 0;
+        if (state == State.SEEK_FIELD) {
+            pending.append(chunk);
+            int idx = pending.indexOf(FIELD);
+            if (idx < 0) {
+                // 只保留可能是字段名前缀的尾部
+                int keep = Math.min(pending.length(), FIELD.length() - 1);
+                pending.delete(0, pending.length() - keep);
+                return "";
+            }
+            chunk = pending.substring(idx + FIELD.length());
+            pending.setLength(0);
+            state = State.SEEK_COLON;
+        }
+        for (; i < chunk.length() && state != State.DONE; i++) {
+            char c = chunk.charAt(i);
+            switch (state) {
+                case SEEK_COLON:
+                    if (c == ':') {
+                        state = State.SEEK_QUOTE;
+                    }
+                    break;
+                case SEEK_QUOTE:
+                    if (c == '"') {
+                        state = State.IN_VALUE;
+                    }
+                    break;
+                case IN_VALUE:
+                    decode(c, out);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return out.toString();
+    }
+
+    public boolean isDone() {
+        return state == State.DONE;
+    }
+
+    private void decode(char c, StringBuilder out) {
+        if (escape.length() == 0) {
+            if (c == '\\') {
+                escape.append(c);
+            } else if (c == '"') {
+                state = State.DONE;
+            } else {
+                out.append(c);
+            }
+            return;
+        }
+        escape.append(c);
+        if (escape.length() == 2) {
+            char e = escape.charAt(1);
+            if (e == 'u') {
+                return;
+            }
+            out.append(unescape(e));
+            escape.setLength(0);
+        } else if (escape.length() == 6) {
+            try {
+                out.append((char) Integer.parseInt(escape.substring(2), 16));
+            } catch (NumberFormatException ex) {
+                out.append(escape);
+            }
+            escape.setLength(0);
+        }
+    }
+
+    private static char unescape(char e) {
+        switch (e) {
+            case 'n':
+                return '\n';
+            case 't':
+                return '\t';
+            case 'r':
+                return '\r';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            default:
+                return e;
+        }
+    }
+}
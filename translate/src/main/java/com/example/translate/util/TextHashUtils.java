@@ -0,0 +1,79 @@
+package com.example.translate.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 文本归一化与摘要工具类
+ */
+public class TextHashUtils {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private TextHashUtils() {
+    }
+
+    /**
+     * 归一化文本：统一换行符，合并连续的空格/制表符，去除首尾空白
+     * 换行保留，避免不同段落结构的文本共用同一个翻译结果
+     *
+     * @param text 原始文本
+     * @return 归一化后的文本
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\r') {
+                if (i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    continue;
+                }
+                c = '\n';
+            }
+            if (c == ' ' || c == '\t' || c == '\u00A0') {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace && c != '\n' && sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n') {
+                sb.append(' ');
+            }
+            pendingSpace = false;
+            sb.append(c);
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * 计算字符串的SHA-256摘要（十六进制小写）
+     */
+    public static String sha256Hex(String text) {
+        return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 计算字节数组的SHA-256摘要（十六进制小写）
+     */
+    public static String sha256Hex(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return toHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            chars[i * 2] = HEX[v >>> 4];
+            chars[i * 2 + 1] = HEX[v & 0x0F];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.translate.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 文本分段工具类
+ * <p>
+ * 先按空行切分段落，超出token预算的段落再按句子切分，单个句子仍超出预算时按空白强制切分；
+ * 相邻的小片段会被合并，使每个分段尽量接近但不超过预算。
+ */
+public class TextSegmenter {
+
+    /**
+     * 英文平均每个token约4个字符
+     */
+    private static final int CHARS_PER_TOKEN = 4;
+
+    /**
+     * 中文句末标点
+     */
+    private static final String CHINESE_SENTENCE_END = "。！？!?…";
+
+    /**
+     * 可以紧跟在句末标点之后、仍属于同一句的闭合符号
+     */
+    private static final String CHINESE_CLOSING = "”’\"'）)」』】";
+
+    private static final Pattern LINE_BREAK = Pattern.compile("\\s*\\n\\s*");
+
+    private TextSegmenter() {
+    }
+
+    /**
+     * 估算文本的token数
+     */
+    public static int estimateTokens(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * 按token预算把文本切分为有序分段
+     *
+     * @param text 原始文本
+     * @param maxTokens 每个分段的token上限
+     * @return 分段列表，所有分段的 text + separator 顺序拼接后等于原文（首尾空白除外）
+     */
+    public static List<Segment> split(String text, int maxTokens) {
+        List<Segment> pieces = new ArrayList<>();
+        if (text == null || text.trim().isEmpty()) {
+            return pieces;
+        }
+        int maxChars = Math.max(1, maxTokens) * CHARS_PER_TOKEN;
+        for (Segment paragraph : splitParagraphs(text.trim())) {
+            if (paragraph.getText().length() <= maxChars) {
+                pieces.add(paragraph);
+            } else {
+                List<Segment> sentences = splitSentences(paragraph);
+                for (Segment sentence : sentences) {
+                    if (sentence.getText().length() <= maxChars) {
+                        pieces.add(sentence);
+                    } else {
+                        pieces.addAll(splitHard(sentence, maxChars));
+                    }
+                }
+            }
+        }
+        return pack(pieces, maxChars);
+    }
+
+    /**
+     * 按句子切分，不做合并；用于句子级的翻译记忆、双语对照等场景
+     *
+     * @param text 原始文本
+     * @return 句子列表
+     */
+    public static List<Segment> splitSentences(String text) {
+        List<Segment> sentences = new ArrayList<>();
+        if (text == null || text.trim().isEmpty()) {
+            return sentences;
+        }
+        for (Segment paragraph : splitParagraphs(text.trim())) {
+            sentences.addAll(splitSentences(paragraph));
+        }
+        return sentences;
+    }
+
+    /**
+     * 按句子切分并按换行分组，每个元素为一个段落中的句子
+     */
+    public static List<List<String>> splitSentencesByParagraph(String text) {
+        List<List<String>> paragraphs = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (Segment sentence : splitSentences(text)) {
+            current.add(sentence.getText());
+            if (sentence.getSeparator() != null && sentence.getSeparator().indexOf('\n') >= 0) {
+                paragraphs.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            paragraphs.add(current);
+        }
+        return paragraphs;
+    }
+
+    /**
+     * 按换行切分译文段落，与 {@link #splitSentencesByParagraph(String)} 的段落对应
+     */
+    public static String[] splitLines(String text) {
+        return LINE_BREAK.split(text == null ? "" : text.trim());
+    }
+
+    /**
+     * 按句末标点切分中文，连续的句末标点与其后的闭合引号、括号归入前一句
+     */
+    public static List<String> splitChineseSentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (CHINESE_SENTENCE_END.indexOf(text.charAt(i)) < 0) {
+                i++;
+                continue;
+            }
+            while (i < length && (CHINESE_SENTENCE_END.indexOf(text.charAt(i)) >= 0
+                    || CHINESE_CLOSING.indexOf(text.charAt(i)) >= 0)) {
+                i++;
+            }
+            String sentence = text.substring(start, i).trim();
+            if (!sentence.isEmpty()) {
+                sentences.add(sentence);
+            }
+            start = i;
+        }
+        String rest = text.substring(start).trim();
+        if (!rest.isEmpty()) {
+            sentences.add(rest);
+        }
+        return sentences;
+    }
+
+    /**
+     * 按换行切分段落，段落间的空白作为前一段的分隔符
+     */
+    private static List<Segment> splitParagraphs(String text) {
+        List<Segment> paragraphs = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+        while (start < length) {
+            int newline = text.indexOf('\n', start);
+            if (newline < 0) {
+                paragraphs.add(new Segment(text.substring(start), ""));
+                break;
+            }
+            int end = newline;
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            int next = newline;
+            while (next < length && Character.isWhitespace(text.charAt(next))) {
+                next++;
+            }
+            if (end > start) {
+                paragraphs.add(new Segment(text.substring(start, end), text.substring(end, next)));
+            } else if (!paragraphs.isEmpty()) {
+                Segment last = paragraphs.get(paragraphs.size() - 1);
+                last.setSeparator(last.getSeparator() + text.substring(start, next));
+            }
+            start = next;
+        }
+        return paragraphs;
+    }
+
+    private static List<Segment> splitSentences(Segment paragraph) {
+        String text = paragraph.getText();
+        List<Segment> sentences = new ArrayList<>();
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+        iterator.setText(text);
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            int contentEnd = end;
+            while (contentEnd > start && Character.isWhitespace(text.charAt(contentEnd - 1))) {
+                contentEnd--;
+            }
+            if (contentEnd > start) {
+                sentences.add(new Segment(text.substring(start, contentEnd), text.substring(contentEnd, end)));
+            }
+        }
+        if (sentences.isEmpty()) {
+            sentences.add(new Segment(text, ""));
+        }
+        Segment last = sentences.get(sentences.size() - 1);
+        last.setSeparator(last.getSeparator() + paragraph.getSeparator());
+        return sentences;
+    }
+
+    /**
+     * 超长句子按空白强制切分
+     */
+    private static List<Segment> splitHard(Segment sentence, int maxChars) {
+        List<Segment> parts = new ArrayList<>();
+        String text = sentence.getText();
+        int start = 0;
+        while (text.length() - start > maxChars) {
+            int end = text.lastIndexOf(' ', start + maxChars);
+            if (end <= start) {
+                end = start + maxChars;
+            }
+            int next = end;
+            while (next < text.length() && text.charAt(next) == ' ') {
+                next++;
+            }
+            parts.add(new Segment(text.substring(start, end), text.substring(end, next)));
+            start = next;
+        }
+        parts.add(new Segment(text.substring(start), sentence.getSeparator()));
+        return parts;
+    }
+
+    /**
+     * 把相邻片段合并为不超过预算的分段
+     */
+    private static List<Segment> pack(List<Segment> pieces, int maxChars) {
+        List<Segment> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String separator = "";
+        for (Segment piece : pieces) {
+            if (current.length() > 0
+                    && current.length() + separator.length() + piece.getText().length() > maxChars) {
+                chunks.add(new Segment(current.toString(), separator));
+                current.setLength(0);
+                separator = "";
+            }
+            if (current.length() > 0) {
+                current.append(separator);
+            }
+            current.append(piece.getText());
+            separator = piece.getSeparator();
+        }
+        if (current.length() > 0) {
+            chunks.add(new Segment(current.toString(), separator));
+        }
+        return chunks;
+    }
+
+    /**
+     * 分段：正文 + 与下一段之间的原始空白
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Segment {
+        private String text;
+        private String separator;
+
+        /**
+         * 翻译为中文后拼接时使用的分隔符：保留换行，行内空格去掉
+         */
+        public String translatedSeparator() {
+            if (separator == null || separator.indexOf('\n') < 0) {
+                return "";
+            }
+            return separator.replaceAll("[^\\n]", "");
+        }
+    }
+}
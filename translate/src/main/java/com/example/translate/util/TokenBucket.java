@@ -0,0 +1,111 @@
+package com.example.translate.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器
+ * <p>
+ * 按固定速率补充令牌，默认桶容量等于每秒速率（至少为1），允许短时突发。
+ * 除逐个获取令牌外，也支持事后按实际用量扣减（如token数），余额可以为负，补足之前不再放行。
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+
+    private final double capacity;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond 每秒产生的令牌数，必须大于0
+     */
+    public TokenBucket(double permitsPerSecond) {
+        this(permitsPerSecond, permitsPerSecond);
+    }
+
+    /**
+     * @param permitsPerSecond 每秒产生的令牌数，必须大于0
+     * @param capacity 桶容量，即允许的最大突发量（至少为1）
+     */
+    public TokenBucket(double permitsPerSecond, double capacity) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond必须大于0");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1D, capacity);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * 不等待，立即尝试获取一个令牌
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1D) {
+            tokens -= 1D;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 余额是否为正，用于事后扣减的场景：只要还有余额就放行，实际用量在结束后通过 consume 扣减
+     */
+    public synchronized boolean hasAvailable() {
+        refill();
+        return tokens > 0D;
+    }
+
+    /**
+     * 按实际用量扣减令牌，余额可以扣成负数
+     */
+    public synchronized void consume(double permits) {
+        refill();
+        tokens -= permits;
+    }
+
+    /**
+     * 余额补充到 permits 个令牌还需等待的毫秒数，已足够时返回0
+     */
+    public synchronized long millisUntil(double permits) {
+        refill();
+        if (tokens >= permits) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis((long) Math.ceil((permits - tokens) / permitsPerNano));
+    }
+
+    /**
+     * 获取一个令牌，最多等待 timeout
+     *
+     * @return 在超时前获取到令牌返回true
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1D) {
+                    tokens -= 1D;
+                    return true;
+                }
+                waitNanos = (long) Math.ceil((1D - tokens) / permitsPerNano);
+            }
+            long remaining = deadline - System.nanoTime();
+            if (waitNanos > remaining) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.translate.util;
+
+import com.example.translate.exception.ResultParseException;
+import com.example.translate.model.TranslateOutput;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * DeepSeek返回值解析
+ * <p>
+ * 模型偶尔会在json前后加上markdown代码块或说明文字。解析时直接在原始返回上定位第一个'{'（批量结果为'['），
+ * 用Jackson流式解析器从该位置读取一个完整的json值并绑定到目标类型，之后的内容不再读取；
+ * 从该位置解析失败时依次尝试后面的起始符号，不产生去除代码块后的中间字符串。
+ */
+@Slf4j
+public class TranslateResultParser {
+
+    public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 最多尝试的起始位置数，避免说明文字中大量花括号导致反复解析
+     */
+    private static final int MAX_ATTEMPTS = 8;
+
+    private TranslateResultParser() {
+    }
+
+    /**
+     * 解析DeepSeek返回的json
+     *
+     * @param result 模型原始返回
+     * @return 翻译结果
+     */
+    public static TranslateOutput parse(String result) {
+        TranslateOutput translateOutput = extract(result, OBJECT_MAPPER.constructType(TranslateOutput.class), '{');
+        if (translateOutput.getSuccess() == null) {
+            log.error("DeepSeek返回值缺少success字段，原始返回：{}", result);
+            throw new ResultParseException("处理DeepSeek返回值时出现异常");
+        }
+        return translateOutput;
+    }
+
+    /**
+     * 从模型原始返回中提取第一个能绑定到目标类型的json值
+     *
+     * @param result 模型原始返回，json前后可以有markdown代码块或说明文字
+     * @param type 目标类型
+     * @param open json值的起始符号，对象为'{'，数组为'['
+     * @return 绑定后的对象
+     */
+    public static <T> T extract(String result, JavaType type, char open) {
+        if (result == null) {
+            throw new ResultParseException("DeepSeek返回值为空");
+        }
+        IOException failure = null;
+        int start = result.indexOf(open);
+        for (int attempt = 0; start >= 0 && attempt < MAX_ATTEMPTS; attempt++) {
+            try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(new CharSequenceReader(result, start))) {
+                T value = OBJECT_MAPPER.readValue(parser, type);
+                if (value != null) {
+                    return value;
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            start = result.indexOf(open, start + 1);
+        }
+        log.error("处理 DeepSeek返回值时出现异常，原始返回：{}", result, failure);
+        throw failure == null ? new ResultParseException("DeepSeek返回值中没有json")
+                : new ResultParseException("处理DeepSeek返回值时出现异常", failure);
+    }
+
+    /**
+     * 从指定位置读取字符串的Reader，不复制字符串内容
+     */
+    private static class CharSequenceReader extends Reader {
+
+        private final String text;
+
+        private int position;
+
+        CharSequenceReader(String text, int start) {
+            this.text = text;
+            this.position = start;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= text.length()) {
+                return -1;
+            }
+            int count = Math.min(length, text.length() - position);
+            text.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
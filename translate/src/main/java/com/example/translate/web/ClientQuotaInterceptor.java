@@ -0,0 +1,70 @@
+package com.example.translate.web;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.QuotaExceededException;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.usage.ClientContext;
+import com.example.translate.usage.UsageTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 识别调用方并执行配额：超出每分钟请求数或token数上限时直接返回429，不再进入翻译流程。
+ * 放行的请求在处理线程上记录调用方，供大模型调用时统计用量。
+ */
+@Component
+@Slf4j
+public class ClientQuotaInterceptor implements AsyncHandlerInterceptor {
+
+    @Autowired
+    private UsageTracker usageTracker;
+
+    @Autowired
+    private TranslateProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String clientId = usageTracker.resolveClient(
+                request.getHeader(properties.getUsage().getClientHeader()), request.getRemoteAddr());
+        try {
+            usageTracker.acquire(clientId);
+        } catch (QuotaExceededException e) {
+            log.warn("调用方[{}]超出配额，拒绝请求：{}", clientId, e.getMessage());
+            TranslateOutput output = new TranslateOutput();
+            output.setSuccess(Boolean.FALSE);
+            output.setTranslation(e.getMessage());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            objectMapper.writeValue(response.getOutputStream(), output);
+            return false;
+        }
+        ClientContext.set(clientId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ClientContext.clear();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 流式响应在其它线程继续写出，请求线程归还前清理
+        ClientContext.clear();
+    }
+}
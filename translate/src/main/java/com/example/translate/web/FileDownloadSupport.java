@@ -0,0 +1,168 @@
+package com.example.translate.web;
+
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.util.FileUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 文件下载：限制在下载目录内，支持 ETag/If-None-Match、单个Range请求，
+ * 容器支持时交给Tomcat用sendfile发送，否则使用 FileChannel.transferTo
+ */
+@Slf4j
+class FileDownloadSupport {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileDownloadSupport() {
+    }
+
+    /**
+     * 把请求的文件路径解析到下载目录下，越出下载目录或文件不存在时返回null
+     */
+    static Path resolve(String baseDir, String fileUrl) {
+        if (StringUtils.isBlank(fileUrl)) {
+            return null;
+        }
+        Path base = Paths.get(baseDir).toAbsolutePath().normalize();
+        Path file;
+        try {
+            Path requested = Paths.get(fileUrl);
+            file = (requested.isAbsolute() ? requested : Paths.get("").toAbsolutePath().resolve(requested)).normalize();
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (!file.startsWith(base) || !Files.isRegularFile(file)) {
+            return null;
+        }
+        return file;
+    }
+
+    static void serve(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(Files.size(file)) + "\"";
+        serve(file, etag, lastModified, request, response);
+    }
+
+    /**
+     * @param etag 文件的ETag
+     * @param lastModified 最后修改时间，小于0时不参与缓存校验
+     */
+    static void serve(Path file, String etag, long lastModified, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            // 已设置304状态
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = null;
+            }
+            // 只支持单个区间，多个区间时按完整文件返回
+            if (ranges != null && ranges.size() == 1) {
+                HttpRange httpRange = ranges.get(0);
+                long rangeStart;
+                long rangeEnd;
+                try {
+                    rangeStart = httpRange.getRangeStart(length);
+                    rangeEnd = httpRange.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    rangeStart = -1;
+                    rangeEnd = -1;
+                }
+                if (length == 0 || rangeStart < 0 || rangeStart >= length || rangeEnd < rangeStart) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = rangeStart;
+                end = rangeEnd;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        OutputFormat format = OutputFormat.fromFilename(file.getFileName().toString());
+        response.setContentType(format != null ? format.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        FileUtils.setAttachmentResponseHeader(response, file.getFileName().toString());
+        response.setContentLengthLong(Math.max(0, count));
+        if (count <= 0 || "HEAD".equalsIgnoreCase(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat在请求处理结束后直接用sendfile把文件写入socket
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream os = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(os);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, target);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+            os.flush();
+        }
+    }
+
+    /**
+     * If-Range 与当前文件不一致时忽略Range，返回完整文件
+     */
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return etag.equals(ifRange);
+        }
+        if (lastModified < 0) {
+            return false;
+        }
+        try {
+            return lastModified / 1000 <= request.getDateHeader(HttpHeaders.IF_RANGE) / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,22 +1,38 @@
 package com.example.translate.web;
 
 
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.TranslateException;
 import com.example.translate.model.Enum.OutputFormat;
 import com.example.translate.model.TranslateInput;
 import com.example.translate.model.TranslateOutput;
+import com.example.translate.render.OutputRenderer;
+import com.example.translate.render.OutputRendererRegistry;
+import com.example.translate.service.DocxTranslateService;
 import com.example.translate.service.TranslateService;
-import com.example.translate.util.FileUtils;
+import com.example.translate.store.DocumentStore;
+import com.example.translate.thirdpart.StreamHandle;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.UnsupportedEncodingException;
-
-import org.apache.commons.lang3.StringUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.*;
 
 @Controller
 @RequestMapping("/api/")
@@ -26,20 +42,27 @@ public class TranslateController {
     @Autowired
     private TranslateService translateService;
 
+    @Autowired
+    private TranslateProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @Autowired
+    private OutputRendererRegistry rendererRegistry;
+
+    @Autowired
+    private DocxTranslateService docxTranslateService;
+
     @PostMapping("v1/translate")
     @ResponseBody
     public TranslateOutput translate(@RequestBody TranslateInput input) {
         TranslateOutput output = new TranslateOutput();
         try{
-            if(StringUtils.isEmpty(input.getText())|| StringUtils.isEmpty(input.getText().trim())) {
-                throw new IllegalArgumentException("请输入要翻译的文本");
-            }
-            if(OutputFormat.getFormat(input.getOutputFormat()) == null) {
-                throw new IllegalArgumentException("不支持的输出格式："+input.getOutputFormat());
-            }
-            if(!StringUtils.equals(input.getIncludeVocabulary(), "true")&& !StringUtils.equals(input.getIncludeVocabulary(), "false")) {
-                throw new IllegalArgumentException("include_vocabulary不支持的参数值："+input.getIncludeVocabulary());
-            }
+            TranslateInputValidator.validate(input);
 
             return translateService.translate(input);
         }catch (Exception e) {
@@ -50,17 +73,212 @@ public class TranslateController {
         }
     }
 
-    @GetMapping("/download")
-    public void fileDownload(String fileUrl, HttpServletResponse response, HttpServletRequest request){
-        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    /**
+     * 批量翻译：多个短文本打包翻译，结果顺序与输入一致，单个条目参数错误不影响其它条目
+     */
+    @PostMapping("v1/translate/batch")
+    @ResponseBody
+    public List<TranslateOutput> translateBatch(@RequestBody List<TranslateInput> inputs) {
+        if (inputs == null || inputs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (inputs.size() > properties.getBatch().getMaxInputs()) {
+            TranslateOutput output = new TranslateOutput();
+            output.setSuccess(Boolean.FALSE);
+            output.setTranslation("单次批量翻译最多支持" + properties.getBatch().getMaxInputs() + "条");
+            return Collections.singletonList(output);
+        }
+        TranslateOutput[] outputs = new TranslateOutput[inputs.size()];
+        List<TranslateInput> valid = new ArrayList<>(inputs.size());
+        List<Integer> validIndexes = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            try {
+                TranslateInputValidator.validate(inputs.get(i));
+                valid.add(inputs.get(i));
+                validIndexes.add(i);
+            } catch (IllegalArgumentException e) {
+                TranslateOutput output = new TranslateOutput();
+                output.setSuccess(Boolean.FALSE);
+                output.setTranslation(e.getMessage());
+                outputs[i] = output;
+            }
+        }
         try {
-            FileUtils.setAttachmentResponseHeader(response, fileUrl);
-            FileUtils.writeBytes(fileUrl, response.getOutputStream());
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }catch (Exception e) {
-            throw new RuntimeException(e);
+            if (!valid.isEmpty()) {
+                List<TranslateOutput> results = translateService.translateBatch(valid);
+                for (int i = 0; i < results.size(); i++) {
+                    outputs[validIndexes.get(i)] = results.get(i);
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量翻译时出现异常", e);
+            for (Integer i : validIndexes) {
+                TranslateOutput output = new TranslateOutput();
+                output.setSuccess(Boolean.FALSE);
+                output.setTranslation(e.getMessage());
+                outputs[i] = output;
+            }
         }
+        return Arrays.asList(outputs);
+    }
 
+    /**
+     * 流式翻译（Server-Sent Events）：翻译文本增量以 delta 事件推送，完整结果以 result 事件推送
+     */
+    @PostMapping(value = "v1/translate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter translateStream(@RequestBody TranslateInput input) {
+        SseEmitter emitter = new SseEmitter(properties.getStream().getTimeout().toMillis());
+        try {
+            TranslateInputValidator.validate(input);
+        } catch (IllegalArgumentException e) {
+            TranslateOutput output = new TranslateOutput();
+            output.setSuccess(Boolean.FALSE);
+            output.setTranslation(e.getMessage());
+            sendResult(emitter, output);
+            return emitter;
+        }
+        StreamHandle handle;
+        try {
+            handle = translateService.translateStream(input,
+                    delta -> send(emitter, "delta", Collections.singletonMap("text", delta)),
+                    output -> sendResult(emitter, output));
+        } catch (Exception e) {
+            // 发起流式翻译时的异常（如prompt模板缺失、线程池拒绝）也要结束SSE连接，不能让客户端等到超时
+            log.error("处理流式翻译时出现异常", e);
+            TranslateOutput output = new TranslateOutput();
+            output.setSuccess(Boolean.FALSE);
+            output.setTranslation("翻译失败，请稍后重试");
+            sendResult(emitter, output);
+            return emitter;
+        }
+        // 客户端断开、超时或推送失败后停止上游生成
+        emitter.onTimeout(handle::cancel);
+        emitter.onError(e -> handle.cancel());
+        emitter.onCompletion(handle::cancel);
+        return emitter;
+    }
+
+    private void sendResult(SseEmitter emitter, TranslateOutput output) {
+        if (send(emitter, "result", output)) {
+            emitter.complete();
+        }
+    }
+
+    private boolean send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (Exception e) {
+            // 客户端已断开连接
+            log.warn("推送翻译事件失败：{}", e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * 翻译并直接返回文档：按 output_format 生成（json 时仍返回word文档），文档边生成边写入响应（分块传输），
+     * 不落盘，也不需要再调用下载接口。参数错误或翻译失败时返回json格式的 TranslateOutput
+     */
+    @PostMapping("v1/translate/document")
+    public ResponseEntity<StreamingResponseBody> translateDocument(@RequestBody TranslateInput input) {
+        TranslateOutput output;
+        OutputRenderer renderer = null;
+        try {
+            TranslateInputValidator.validate(input);
+            renderer = rendererRegistry.get(OutputFormat.getFormat(input.getOutputFormat()));
+            if (renderer == null) {
+                renderer = rendererRegistry.get(OutputFormat.WORD);
+            }
+            // 文档直接写入响应，翻译阶段不再生成文件
+            input.setOutputFormat(OutputFormat.JSON.getCode());
+            output = translateService.translate(input);
+        } catch (Exception e) {
+            log.error("处理问题时出现异常", e);
+            output = new TranslateOutput();
+            output.setSuccess(Boolean.FALSE);
+            output.setTranslation(e.getMessage());
+        }
+        if (!Boolean.TRUE.equals(output.getSuccess())) {
+            TranslateOutput failure = output;
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, failure));
+        }
+        TranslateOutput result = output;
+        OutputRenderer documentRenderer = renderer;
+        StreamingResponseBody body = out -> documentRenderer.render(input, result, out);
+        OutputFormat format = documentRenderer.getFormat();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("translate_" + UUID.randomUUID() + "." + format.getExtension()).build().toString())
+                .body(body);
+    }
+
+    /**
+     * 上传word文档翻译：段落译文写回原文档结构后直接返回docx，翻译失败时返回json格式的 TranslateOutput
+     */
+    @PostMapping("v1/translate/docx")
+    public ResponseEntity<StreamingResponseBody> translateDocx(@RequestParam("file") MultipartFile file) {
+        XWPFDocument document;
+        try {
+            if (file.isEmpty() || !StringUtils.endsWithIgnoreCase(file.getOriginalFilename(), ".docx")) {
+                throw new IllegalArgumentException("请上传docx格式的word文档");
+            }
+            try (InputStream in = file.getInputStream()) {
+                document = docxTranslateService.translate(in);
+            }
+        } catch (Exception e) {
+            log.error("翻译word文档时出现异常", e);
+            TranslateOutput failure = new TranslateOutput();
+            failure.setSuccess(Boolean.FALSE);
+            failure.setTranslation(e instanceof IllegalArgumentException || e instanceof TranslateException
+                    ? e.getMessage() : "无法解析word文档");
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, failure));
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                document.write(out);
+            } finally {
+                document.close();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(OutputFormat.WORD.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("translate_" + UUID.randomUUID() + ".docx").build().toString())
+                .body(body);
+    }
+
+    /**
+     * 下载生成的文档：fileUrl 为翻译结果中的 word_document_url。
+     * 本地存储直接发送文件（支持 ETag/If-None-Match 与 Range 请求），对象存储重定向到预签名URL；
+     * 旧版本生成的文件路径只允许访问本地存储目录下的文件
+     */
+    @GetMapping("/download")
+    public void fileDownload(String fileUrl, HttpServletResponse response, HttpServletRequest request) throws IOException {
+        if (DocumentStore.isValidId(fileUrl)) {
+            Path local = documentStore.localPath(fileUrl);
+            if (local != null) {
+                // 文档按内容寻址，id本身就是稳定的ETag
+                FileDownloadSupport.serve(local, "\"" + fileUrl + "\"", -1, request, response);
+                return;
+            }
+            String url = documentStore.downloadUrl(fileUrl);
+            if (url != null) {
+                response.sendRedirect(url);
+                return;
+            }
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = FileDownloadSupport.resolve(properties.getStore().getLocal().getDir(), fileUrl);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        FileDownloadSupport.serve(file, request, response);
     }
 }
@@ -0,0 +1,32 @@
+package com.example.translate.web;
+
+import com.example.translate.model.Enum.OutputFormat;
+import com.example.translate.model.TranslateInput;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 翻译请求参数校验
+ */
+public class TranslateInputValidator {
+
+    private TranslateInputValidator() {
+    }
+
+    /**
+     * 校验翻译参数，不合法时抛出 IllegalArgumentException
+     */
+    public static void validate(TranslateInput input) {
+        if (input == null) {
+            throw new IllegalArgumentException("请输入要翻译的文本");
+        }
+        if(StringUtils.isEmpty(input.getText())|| StringUtils.isEmpty(input.getText().trim())) {
+            throw new IllegalArgumentException("请输入要翻译的文本");
+        }
+        if(OutputFormat.getFormat(input.getOutputFormat()) == null) {
+            throw new IllegalArgumentException("不支持的输出格式："+input.getOutputFormat());
+        }
+        if(!StringUtils.equals(input.getIncludeVocabulary(), "true")&& !StringUtils.equals(input.getIncludeVocabulary(), "false")) {
+            throw new IllegalArgumentException("include_vocabulary不支持的参数值："+input.getIncludeVocabulary());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.translate.web;
+
+import com.example.translate.exception.TranslateException;
+import com.example.translate.model.TranslateJob;
+import com.example.translate.model.TranslateJobInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.service.TranslateJobService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * 异步翻译任务接口：提交后立即返回任务id，通过轮询或回调获取结果
+ */
+@Controller
+@RequestMapping("/api/")
+@Slf4j
+public class TranslateJobController {
+
+    @Autowired
+    private TranslateJobService translateJobService;
+
+    @PostMapping("v2/translate/jobs")
+    @ResponseBody
+    public ResponseEntity<Object> submit(@RequestBody TranslateJobInput input) {
+        try {
+            TranslateInputValidator.validate(input);
+            TranslateJob job = translateJobService.submit(input);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v2/translate/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (TranslateException e) {
+            log.warn("提交翻译任务失败：{}", e.getMessage());
+            return error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    @GetMapping("v2/translate/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<Object> get(@PathVariable String jobId) {
+        TranslateJob job = translateJobService.get(jobId);
+        if (job == null) {
+            return error(HttpStatus.NOT_FOUND, "任务不存在或已过期：" + jobId);
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    private ResponseEntity<Object> error(HttpStatus status, String message) {
+        TranslateOutput output = new TranslateOutput();
+        output.setSuccess(Boolean.FALSE);
+        output.setTranslation(message);
+        return ResponseEntity.status(status).body(output);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.translate.cache;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.prompt.PromptRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationCacheTest {
+
+    private TranslateProperties properties;
+
+    private TranslationCache cache;
+
+    private PromptRegistry promptRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new TranslateProperties();
+        promptRegistry = new PromptRegistry();
+        ReflectionTestUtils.setField(promptRegistry, "properties", properties);
+        promptRegistry.reload();
+        cache = new TranslationCache();
+        ReflectionTestUtils.setField(cache, "properties", properties);
+        ReflectionTestUtils.setField(cache, "promptRegistry", promptRegistry);
+    }
+
+    @Test
+    void keyIgnoresWhitespaceButNotVariant() {
+        assertEquals(cache.keyOf("Hello   world ", false), cache.keyOf("Hello world", false));
+        assertNotEquals(cache.keyOf("Hello world", false), cache.keyOf("Hello world", true));
+        assertNotEquals(cache.keyOf("Hello\nworld", false), cache.keyOf("Hello world", false));
+    }
+
+    @Test
+    void keyChangesWhenPromptTemplatesReload(@TempDir Path dir) throws IOException {
+        String before = cache.keyOf("Hello world", false);
+        properties.getPrompt().setOverrideDir(dir.toString());
+        promptRegistry.reload();
+        assertEquals(before, cache.keyOf("Hello world", false));
+
+        Files.write(dir.resolve(PromptRegistry.NO_VOCABULARY + ".txt"),
+                "Translate into Chinese.".getBytes(StandardCharsets.UTF_8));
+        promptRegistry.reload();
+        // 模板修改后旧模板的缓存不再命中
+        assertNotEquals(before, cache.keyOf("Hello world", false));
+    }
+
+    @Test
+    void hitReturnsIndependentCopy() {
+        cache.put("k", output("你好"));
+
+        TranslateOutput hit = cache.get("k");
+        assertNotNull(hit);
+        hit.setTranslation("changed");
+
+        assertEquals("你好", cache.get("k").getTranslation());
+        assertEquals(2, cache.getHits());
+        assertNull(cache.get("missing"));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        properties.getCache().setMaxEntries(2);
+        cache.put("a", output("a"));
+        cache.put("b", output("b"));
+        cache.get("a");
+        cache.put("c", output("c"));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    private static TranslateOutput output(String translation) {
+        TranslateOutput output = new TranslateOutput();
+        output.setSuccess(Boolean.TRUE);
+        output.setTranslation(translation);
+        return output;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.translate.memory;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationMemoryTest {
+
+    private static final String SENTENCE = "The committee approved the budget for the new library after a long debate.";
+
+    @Test
+    void exactMatchIgnoresCaseAndWhitespace() {
+        TranslationMemory memory = memory(new TranslateProperties());
+        memory.put(SENTENCE, output("委员会经过长时间辩论后批准了新图书馆的预算。"), false);
+        TranslateOutput hit = memory.lookup("  the committee approved the budget for the new   library after a long debate.", false);
+        assertNotNull(hit);
+        assertEquals("委员会经过长时间辩论后批准了新图书馆的预算。", hit.getTranslation());
+        assertEquals(1, memory.getExactHits());
+        // 不带词汇的译文不能用于需要词汇的请求
+        assertNull(memory.lookup(SENTENCE, true));
+    }
+
+    @Test
+    void nearIdenticalSentenceIsOnlyAReference() {
+        TranslationMemory memory = memory(new TranslateProperties());
+        memory.put("The new reporting dashboard is not available to customers in the European region yet.", output("该服务不向该地区的客户提供。"), false);
+        String changed = "The new reporting dashboard is now available to customers in the European region yet.";
+        // 含义相反的句子相似度也很高，不能作为译文直接返回
+        assertNull(memory.lookup(changed, false));
+        List<TranslationMemory.Reference> references = memory.references(Collections.singletonList(changed));
+        assertEquals(1, references.size());
+        assertEquals("The new reporting dashboard is not available to customers in the European region yet.", references.get(0).getSource());
+        assertEquals("该服务不向该地区的客户提供。", references.get(0).getTranslation());
+        assertEquals(1, memory.getFuzzyHits());
+        // 改动较大的句子不作为参考
+        assertTrue(memory.references(Collections.singletonList(
+                "The committee rejected the budget for the old museum after a short debate.")).isEmpty());
+    }
+
+    @Test
+    void referencesRequireSameNumbers() {
+        TranslationMemory memory = memory(new TranslateProperties());
+        memory.put("The committee approved a budget of 300 dollars for the new library.", output("译文"), false);
+        assertTrue(memory.references(Collections.singletonList(
+                "The committee approved a budget of 900 dollars for the new library.")).isEmpty());
+        assertEquals(1, memory.references(Collections.singletonList(
+                "The committee approved a budget of 300 dollars for the new library!")).size());
+    }
+
+    @Test
+    void storesAlignedSentencesOfWholeTranslation() {
+        TranslationMemory memory = memory(new TranslateProperties());
+        TranslateOutput output = output("你好。你好吗？\n这一段对不齐");
+        Vocabulary hello = new Vocabulary();
+        hello.setEnglish("Hello");
+        hello.setChinese("你好");
+        output.setVocabulary(Collections.singletonList(hello));
+        memory.putAligned("Hello there. How are you?\nThis one. Does not align.", output, true);
+
+        TranslateOutput first = memory.lookup("Hello there.", true);
+        assertEquals("你好。", first.getTranslation());
+        assertEquals(1, first.getVocabulary().size());
+        assertEquals("你好吗？", memory.lookup("How are you?", true).getTranslation());
+        assertTrue(memory.lookup("How are you?", true).getVocabulary().isEmpty());
+        assertNull(memory.lookup("This one.", false));
+        assertEquals(2, memory.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        TranslateProperties properties = new TranslateProperties();
+        properties.getMemory().setMaxEntries(2);
+        TranslationMemory memory = memory(properties);
+        memory.put("First sentence.", output("一"), false);
+        memory.put("Second sentence.", output("二"), false);
+        memory.lookup("First sentence.", false);
+        memory.put("Third sentence.", output("三"), false);
+        assertEquals(2, memory.size());
+        assertNotNull(memory.lookup("First sentence.", false));
+        assertNull(memory.lookup("Second sentence.", false));
+    }
+
+    private static TranslateOutput output(String translation) {
+        TranslateOutput output = new TranslateOutput();
+        output.setSuccess(Boolean.TRUE);
+        output.setTranslation(translation);
+        output.setVocabulary(Collections.emptyList());
+        return output;
+    }
+
+    private static TranslationMemory memory(TranslateProperties properties) {
+        TranslationMemory memory = new TranslationMemory();
+        ReflectionTestUtils.setField(memory, "properties", properties);
+        return memory;
+    }
+}
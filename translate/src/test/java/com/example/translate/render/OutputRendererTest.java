@@ -0,0 +1,139 @@
+package com.example.translate.render;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.model.Vocabulary;
+import com.example.translate.util.TextSegmenter;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputRendererTest {
+
+    @Test
+    void htmlAlignsParagraphsAndEscapes() throws IOException {
+        String html = render(new HtmlRenderer(), output(1));
+
+        assertTrue(html.contains("<td>First &lt;b&gt; paragraph.</td><td>第一段。</td>"));
+        assertTrue(html.contains("<td>Second paragraph.</td><td>第二段。</td>"));
+        assertTrue(html.contains("<td>word0</td><td>单词0</td><td>解释 &amp; 0</td>"));
+    }
+
+    @Test
+    void markdownEscapesTextAndTableCells() throws IOException {
+        String markdown = render(new MarkdownRenderer(), output(1));
+
+        assertTrue(markdown.contains("> First \\<b\\> paragraph.\n\n第一段。\n\n"));
+        assertTrue(markdown.contains("| word0 | 单词0 | 解释 \\& 0 |"));
+    }
+
+    @Test
+    void markdownEscapesBlockAndInlineMarkup() {
+        assertEquals("\\# Title\n\\- item\n12\\. step\ncode\n\\`x\\` a\\|b \\*c\\* \\[d\\](e) 3.5",
+                MarkdownRenderer.escape("# Title\r\n- item\n12. step\n    code\n`x` a|b *c* [d](e) 3.5"));
+    }
+
+    @Test
+    void xlsxStreamsLargeVocabulary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxRenderer().render(input(), output(1000), out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet bilingual = workbook.getSheet("双语对照");
+            assertEquals("Second paragraph.", bilingual.getRow(2).getCell(0).getStringCellValue());
+            assertEquals("第二段。", bilingual.getRow(2).getCell(1).getStringCellValue());
+            Sheet vocabulary = workbook.getSheet("词汇");
+            assertEquals(1000, vocabulary.getLastRowNum());
+            assertEquals("word999", vocabulary.getRow(1000).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    void alignsSentencesAndFallsBackPerParagraph() {
+        List<String[]> pairs = BilingualAlignment.sentences(
+                "Hello there. How are you?\nIt said \"yes.\" Then it left. Bye.",
+                "你好。你好吗？\n它说“好。”然后离开了。");
+
+        assertEquals(3, pairs.size());
+        assertArrayEquals(new String[]{"Hello there.", "你好。"}, pairs.get(0));
+        assertArrayEquals(new String[]{"How are you?", "你好吗？"}, pairs.get(1));
+        assertEquals("它说“好。”然后离开了。", pairs.get(2)[1]);
+
+        assertEquals(Arrays.asList("它说“好。”", "然后离开了。", "没有标点"),
+                TextSegmenter.splitChineseSentences("它说“好。”然后离开了。没有标点"));
+        assertEquals(1, BilingualAlignment.sentences("One.\nTwo.", "一。").size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void bilingualWordPlacesSentenceTableAtSourcePlaceholder(boolean compiled) throws IOException {
+        TranslateProperties properties = new TranslateProperties();
+        properties.getWord().setCompiled(compiled);
+        WordRenderer wordRenderer = new WordRenderer();
+        ReflectionTestUtils.setField(wordRenderer, "properties", properties);
+        ReflectionTestUtils.setField(wordRenderer, "resourceLoader", new DefaultResourceLoader());
+        wordRenderer.init();
+        BilingualWordRenderer renderer = new BilingualWordRenderer();
+        ReflectionTestUtils.setField(renderer, "wordRenderer", wordRenderer);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.render(input(), output(500), out);
+
+        try (XWPFDocument document = new XWPFDocument(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(2, document.getTables().size());
+            XWPFTable bilingual = document.getTables().get(0);
+            assertEquals(3, bilingual.getRows().size());
+            assertEquals("原文", bilingual.getRow(0).getCell(0).getText());
+            assertEquals("第二段。", bilingual.getRow(2).getCell(1).getText());
+            XWPFTable vocabulary = document.getTables().get(1);
+            assertEquals(501, vocabulary.getRows().size());
+            assertEquals("word499", vocabulary.getRow(500).getCell(0).getText());
+            assertTrue(document.getBodyElements().indexOf(bilingual) < document.getBodyElements().indexOf(vocabulary));
+        }
+    }
+
+    private static String render(OutputRenderer renderer, TranslateOutput output) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.render(input(), output, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static TranslateInput input() {
+        TranslateInput input = new TranslateInput();
+        input.setText("First <b> paragraph.\n\nSecond paragraph.");
+        return input;
+    }
+
+    private static TranslateOutput output(int vocabularySize) {
+        TranslateOutput output = new TranslateOutput();
+        output.setSuccess(Boolean.TRUE);
+        output.setTranslation("第一段。\n\n第二段。");
+        List<Vocabulary> vocabulary = new ArrayList<>();
+        for (int i = 0; i < vocabularySize; i++) {
+            Vocabulary v = new Vocabulary();
+            v.setEnglish("word" + i);
+            v.setChinese("单词" + i);
+            v.setExplanation("解释 & " + i);
+            vocabulary.add(v);
+        }
+        output.setVocabulary(vocabulary);
+        return output;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.translate.service.impl;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.service.TranslateService;
+import com.example.translate.thirdpart.StreamHandle;
+import org.apache.poi.util.Units;
+import org.apache.poi.wp.usermodel.HeaderFooterType;
+import org.apache.poi.xwpf.usermodel.*;
+import org.junit.jupiter.api.Test;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STFldCharType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocxTranslateServiceImplTest {
+
+    @Test
+    void translatesParagraphsTablesAndHeadersInPlace() throws IOException {
+        List<List<String>> batches = new ArrayList<>();
+        DocxTranslateServiceImpl service = service(batches, 2);
+
+        byte[] docx;
+        try (XWPFDocument source = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            XWPFParagraph title = source.createParagraph();
+            XWPFRun bold = title.createRun();
+            bold.setBold(true);
+            bold.setText("Hello ");
+            title.createRun().setText("world");
+            source.createParagraph().createRun().setText("2024");
+            XWPFTable table = source.createTable(1, 2);
+            table.getRow(0).getCell(0).setText("Hello world");
+            table.getRow(0).getCell(1).setText("Cell text");
+            source.createHeader(HeaderFooterType.DEFAULT).createParagraph().createRun().setText("Header text");
+            source.write(out);
+            docx = out.toByteArray();
+        }
+
+        try (XWPFDocument translated = service.translate(new ByteArrayInputStream(docx))) {
+            XWPFParagraph title = translated.getParagraphs().get(0);
+            assertEquals("译[Hello world]", title.getText());
+            // 译文写入第一个run并保留其格式，其余run只清空文字
+            assertEquals("译[Hello world]", title.getRuns().get(0).text());
+            assertTrue(title.getRuns().get(0).isBold());
+            assertEquals("2024", translated.getParagraphs().get(1).getText());
+            XWPFTableRow row = translated.getTables().get(0).getRow(0);
+            assertEquals("译[Hello world]", row.getCell(0).getText());
+            assertEquals("译[Cell text]", row.getCell(1).getText());
+            assertEquals("译[Header text]", translated.getHeaderList().get(0).getParagraphs().get(0).getText());
+        }
+        // 每批2段，重复的“Hello world”在同一批内只翻译一次
+        assertEquals(2, batches.size());
+        assertEquals(1, batches.get(0).size());
+        assertEquals(2, batches.get(1).size());
+    }
+
+    @Test
+    void keepsFieldsHyperlinksAndPictures() throws Exception {
+        DocxTranslateServiceImpl service = service(new ArrayList<>(), 10);
+
+        byte[] docx;
+        try (XWPFDocument source = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            XWPFParagraph withPicture = source.createParagraph();
+            XWPFRun before = withPicture.createRun();
+            before.setText("Chart");
+            before.addTab();
+            withPicture.createRun().addPicture(new ByteArrayInputStream(png()), Document.PICTURE_TYPE_PNG,
+                    "chart.png", Units.toEMU(10), Units.toEMU(10));
+            withPicture.createRun().setText(" below");
+
+            XWPFParagraph withLink = source.createParagraph();
+            withLink.createRun().setText("See the ");
+            withLink.createHyperlinkRun("https://example.com").setText("manual");
+
+            XWPFParagraph page = source.createFooter(HeaderFooterType.DEFAULT).createParagraph();
+            page.createRun().setText("Page ");
+            page.createRun().getCTR().addNewFldChar().setFldCharType(STFldCharType.BEGIN);
+            page.createRun().getCTR().addNewInstrText().setStringValue(" PAGE ");
+            page.createRun().getCTR().addNewFldChar().setFldCharType(STFldCharType.SEPARATE);
+            page.createRun().setText("1");
+            page.createRun().getCTR().addNewFldChar().setFldCharType(STFldCharType.END);
+
+            source.write(out);
+            docx = out.toByteArray();
+        }
+
+        try (XWPFDocument translated = service.translate(new ByteArrayInputStream(docx))) {
+            XWPFParagraph withPicture = translated.getParagraphs().get(0);
+            assertEquals("译[Chart below]", withPicture.getRuns().get(0).getCTR().getTArray(0).getStringValue());
+            assertEquals(1, withPicture.getRuns().get(0).getCTR().sizeOfTabArray());
+            assertEquals(1, withPicture.getRuns().get(1).getEmbeddedPictures().size());
+            assertEquals(0, withPicture.getRuns().get(2).getCTR().sizeOfTArray());
+
+            XWPFParagraph withLink = translated.getParagraphs().get(1);
+            assertEquals("See the manual", withLink.getText());
+            assertEquals(1, withLink.getCTP().sizeOfHyperlinkArray());
+
+            XWPFParagraph page = translated.getFooterList().get(0).getParagraphs().get(0);
+            assertEquals("Page ", page.getRuns().get(0).text());
+            assertEquals(" PAGE ", page.getRuns().get(2).getCTR().getInstrTextArray(0).getStringValue());
+            assertEquals(STFldCharType.END, page.getRuns().get(5).getCTR().getFldCharArray(0).getFldCharType());
+        }
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static DocxTranslateServiceImpl service(List<List<String>> batches, int windowSize) {
+        TranslateProperties properties = new TranslateProperties();
+        properties.getDocx().setWindowSize(windowSize);
+        DocxTranslateServiceImpl service = new DocxTranslateServiceImpl();
+        ReflectionTestUtils.setField(service, "properties", properties);
+        ReflectionTestUtils.setField(service, "translateService", new TranslateService() {
+            @Override
+            public TranslateOutput translate(TranslateInput input) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public StreamHandle translateStream(TranslateInput input, Consumer<String> onDelta,
+                                               Consumer<TranslateOutput> onComplete) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<TranslateOutput> translateBatch(List<TranslateInput> inputs) {
+                List<String> texts = new ArrayList<>();
+                List<TranslateOutput> outputs = new ArrayList<>();
+                for (TranslateInput input : inputs) {
+                    texts.add(input.getText());
+                    TranslateOutput output = new TranslateOutput();
+                    output.setSuccess(Boolean.TRUE);
+                    output.setTranslation("译[" + input.getText() + "]");
+                    outputs.add(output);
+                }
+                batches.add(texts);
+                return outputs;
+            }
+        });
+        return service;
+    }
+}
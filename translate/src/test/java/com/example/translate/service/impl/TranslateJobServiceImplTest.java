@@ -0,0 +1,182 @@
+package com.example.translate.service.impl;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.model.Enum.JobStatus;
+import com.example.translate.model.TranslateInput;
+import com.example.translate.model.TranslateJob;
+import com.example.translate.model.TranslateJobInput;
+import com.example.translate.model.TranslateOutput;
+import com.example.translate.service.TranslateService;
+import com.example.translate.thirdpart.StreamHandle;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslateJobServiceImplTest {
+
+    @Test
+    void submitAndPollUntilDone() throws InterruptedException {
+        TranslateJobServiceImpl service = service(new TranslateProperties());
+        TranslateJob submitted = service.submit(input("hello", null));
+        assertNotNull(submitted.getJobId());
+        assertSame(submitted, service.get(submitted.getJobId()));
+
+        TranslateJob job = poll(service, submitted.getJobId());
+        assertEquals(JobStatus.DONE, job.getStatus());
+        assertEquals("译[hello]", job.getResult().getTranslation());
+        assertNull(job.getError());
+        assertNull(job.getInput());
+        assertNull(service.get("missing"));
+        service.destroy();
+    }
+
+    @Test
+    void failedTranslationMarksJobFailed() throws InterruptedException {
+        TranslateJobServiceImpl service = service(new TranslateProperties());
+        TranslateJob job = poll(service, service.submit(input("boom", null)).getJobId());
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertEquals("调用DeepSeek失败", job.getError());
+        assertNull(job.getResult());
+        service.destroy();
+    }
+
+    @Test
+    void postsFinishedJobToCallback() throws IOException, InterruptedException {
+        BlockingQueue<String> bodies = new ArrayBlockingQueue<>(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", exchange -> {
+            bodies.add(read(exchange.getRequestBody()));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            TranslateProperties properties = new TranslateProperties();
+            properties.getJob().setCallbackAllowedHosts(Collections.singletonList("127.0.0.1"));
+            TranslateJobServiceImpl service = service(properties);
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+            TranslateJob job = service.submit(input("hello", url));
+
+            String body = bodies.poll(10, TimeUnit.SECONDS);
+            assertNotNull(body, "callback not delivered");
+            assertTrue(body.contains("\"job_id\":\"" + job.getJobId() + "\""), body);
+            assertTrue(body.contains("\"status\":\"done\""), body);
+            assertTrue(body.contains("\"finished_at\":"), body);
+            service.destroy();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void rejectsCallbackToInternalAddresses() {
+        TranslateJobServiceImpl service = service(new TranslateProperties());
+        for (String url : new String[]{"http://127.0.0.1:8080/hook", "http://localhost/hook",
+                "http://169.254.169.254/latest/meta-data", "http://10.1.2.3/hook", "http://192.168.0.1/hook",
+                "http://[::1]/hook", "http://[::ffff:127.0.0.1]/hook", "http://[fd00::1]/hook",
+                "http://0.0.0.0/hook", "ftp://example.com/hook", "http:///hook"}) {
+            assertThrows(IllegalArgumentException.class, () -> service.submit(input("hello", url)), url);
+        }
+        // 公网地址可以回调
+        assertNotNull(service.submit(input("hello", "http://93.184.216.34/hook")).getJobId());
+        service.destroy();
+    }
+
+    @Test
+    void allowlistRestrictsCallbackHosts() {
+        TranslateProperties properties = new TranslateProperties();
+        properties.getJob().setCallbackAllowedHosts(Collections.singletonList(".example.com"));
+        TranslateJobServiceImpl service = service(properties);
+        assertNotNull(service.submit(input("hello", "https://hooks.example.com/done")).getJobId());
+        assertNotNull(service.submit(input("hello", "https://example.com/done")).getJobId());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit(input("hello", "https://example.com.evil.net/done")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit(input("hello", "http://93.184.216.34/hook")));
+        service.destroy();
+    }
+
+    /**
+     * 轮询直到任务结束；每次看到结束状态时结束时间都必须已经写入
+     */
+    private static TranslateJob poll(TranslateJobServiceImpl service, String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            TranslateJob job = service.get(jobId);
+            if (job.getStatus().isFinished()) {
+                assertNotNull(job.getFinishedAt());
+                return job;
+            }
+            Thread.sleep(5);
+        }
+        return fail("job not finished: " + jobId);
+    }
+
+    private static TranslateJobInput input(String text, String callbackUrl) {
+        TranslateJobInput input = new TranslateJobInput();
+        input.setText(text);
+        input.setCallbackUrl(callbackUrl);
+        return input;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static TranslateJobServiceImpl service(TranslateProperties properties) {
+        TranslateJobServiceImpl service = new TranslateJobServiceImpl();
+        ReflectionTestUtils.setField(service, "properties", properties);
+        ReflectionTestUtils.setField(service, "restTemplateBuilder", new RestTemplateBuilder());
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "translateService", new TranslateService() {
+            @Override
+            public TranslateOutput translate(TranslateInput input) {
+                TranslateOutput output = new TranslateOutput();
+                if ("boom".equals(input.getText())) {
+                    // 与真实实现一致：失败以success=false的结果返回，不抛出异常
+                    output.setSuccess(Boolean.FALSE);
+                    output.setTranslation("调用DeepSeek失败");
+                    return output;
+                }
+                output.setSuccess(Boolean.TRUE);
+                output.setTranslation("译[" + input.getText() + "]");
+                return output;
+            }
+
+            @Override
+            public StreamHandle translateStream(TranslateInput input, Consumer<String> onDelta,
+                                               Consumer<TranslateOutput> onComplete) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<TranslateOutput> translateBatch(List<TranslateInput> inputs) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.translate.store;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.util.TextHashUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalDocumentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void savesShardedAndDeduplicates() throws IOException {
+        LocalDocumentStore store = new LocalDocumentStore(config(Duration.ofDays(1), DataSize.ofMegabytes(1)));
+        String id = id("a");
+        AtomicInteger writes = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            store.save(id, out -> {
+                writes.incrementAndGet();
+                out.write("content".getBytes(StandardCharsets.UTF_8));
+            });
+        }
+        assertEquals(1, writes.get());
+        Path path = store.localPath(id);
+        assertEquals(dir.resolve(id.substring(0, 2)).resolve(id.substring(2, 4)).resolve(id), path);
+        assertEquals("content", new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> store.localPath("../etc/passwd"));
+    }
+
+    @Test
+    void recreatesShardDirectoryRemovedDuringSave() throws IOException {
+        LocalDocumentStore store = new LocalDocumentStore(config(Duration.ofDays(1), DataSize.ofMegabytes(1)));
+        String id = id("swept");
+        Path shard = dir.resolve(id.substring(0, 2));
+        Files.createDirectories(path(id).getParent());
+        store.save(id, out -> {
+            // 模拟写入过程中清理任务删除了空的分级目录
+            Files.walk(shard).sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            out.write("content".getBytes(StandardCharsets.UTF_8));
+        });
+        assertEquals("content", new String(Files.readAllBytes(path(id)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sweepRemovesExpiredAndOldestOverLimit() throws IOException {
+        LocalDocumentStore store = new LocalDocumentStore(config(Duration.ofHours(1), DataSize.ofBytes(15)));
+        long now = System.currentTimeMillis();
+        String expired = id("expired");
+        String older = id("older");
+        String newer = id("newer");
+        save(store, expired, now - Duration.ofHours(2).toMillis());
+        save(store, older, now - 2000);
+        save(store, newer, now - 1000);
+        Path legacy = dir.resolve("20240101").resolve("translate_old.docx");
+        Files.createDirectories(legacy.getParent());
+        Files.write(legacy, new byte[1]);
+        Files.setLastModifiedTime(legacy, FileTime.fromMillis(now - Duration.ofDays(30).toMillis()));
+
+        store.sweep();
+
+        assertFalse(Files.exists(path(expired)));
+        assertFalse(Files.exists(legacy.getParent()));
+        // 每个文档10字节，上限15字节，过期文件删除后仍超限，再删除最久未访问的一个
+        assertFalse(Files.exists(path(older)));
+        assertTrue(Files.exists(path(newer)));
+    }
+
+    private void save(LocalDocumentStore store, String id, long lastModified) throws IOException {
+        store.save(id, out -> out.write(new byte[10]));
+        Files.setLastModifiedTime(path(id), FileTime.fromMillis(lastModified));
+    }
+
+    private Path path(String id) {
+        return dir.resolve(id.substring(0, 2)).resolve(id.substring(2, 4)).resolve(id);
+    }
+
+    private TranslateProperties.Local config(Duration ttl, DataSize maxSize) {
+        TranslateProperties.Local config = new TranslateProperties.Local();
+        config.setDir(dir.toString());
+        config.setTtl(ttl);
+        config.setMaxSize(maxSize);
+        return config;
+    }
+
+    private static String id(String content) {
+        return TextHashUtils.sha256Hex(content) + ".docx";
+    }
+}
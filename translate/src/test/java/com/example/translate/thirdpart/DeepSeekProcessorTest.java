@@ -0,0 +1,39 @@
+package com.example.translate.thirdpart;
+
+import com.example.translate.exception.UpstreamRejectedException;
+import io.github.pigmesh.ai.deepseek.core.OpenAiHttpException;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeepSeekProcessorTest {
+
+    @Test
+    void retriesOnlyTransientStatusCodes() {
+        assertTrue(DeepSeekProcessor.isTransient(new OpenAiHttpException(429, "{}")));
+        assertTrue(DeepSeekProcessor.isTransient(new OpenAiHttpException(503, "{}")));
+        assertTrue(DeepSeekProcessor.isTransient(new RuntimeException(new OpenAiHttpException(502, "{}"))));
+        assertFalse(DeepSeekProcessor.isTransient(new OpenAiHttpException(400, "{}")));
+        assertFalse(DeepSeekProcessor.isTransient(new OpenAiHttpException(401, "{}")));
+    }
+
+    @Test
+    void ignoresStatusLikeNumbersInMessages() {
+        // 信息中出现的数字（如token数、原文内容）不应被当作状态码
+        assertFalse(DeepSeekProcessor.isTransient(
+                new OpenAiHttpException(400, "This model's maximum context length is 65536 tokens, you requested 500 504")));
+        assertFalse(DeepSeekProcessor.isTransient(new IllegalStateException("got 503 sentences")));
+    }
+
+    @Test
+    void retriesTimeoutsAndNetworkErrors() {
+        assertTrue(DeepSeekProcessor.isTransient(new TimeoutException("timeout")));
+        assertTrue(DeepSeekProcessor.isTransient(new RuntimeException(new SocketTimeoutException("read timed out"))));
+        assertFalse(DeepSeekProcessor.isTransient(new UpstreamRejectedException("busy")));
+        assertFalse(DeepSeekProcessor.isTransient(new CancellationException()));
+    }
+}
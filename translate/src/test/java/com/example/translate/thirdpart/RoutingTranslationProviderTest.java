@@ -0,0 +1,175 @@
+package com.example.translate.thirdpart;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.usage.UsageTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingTranslationProviderTest {
+
+    @Test
+    void unmeasuredProviderGetsMedianLatencyInsteadOfPriority() {
+        TranslateProperties properties = new TranslateProperties();
+        properties.getRouting().setStrategy(RoutingTranslationProvider.STRATEGY_LATENCY);
+        FakeProvider measured = new FakeProvider("measured", 1000, 100);
+        FakeProvider stub = new FakeProvider("stub", 0, 0);
+        RoutingTranslationProvider router = router(properties, measured, stub);
+
+        for (int i = 0; i < 4000; i++) {
+            router.completeAsync("", "q").join();
+        }
+        // 两者权重相同，未统计耗时的服务商不应占据绝大部分流量
+        double share = stub.calls.get() / 4000D;
+        assertTrue(share > 0.4 && share < 0.6, "stub share " + share);
+    }
+
+    @Test
+    void streamFailsOverBeforeFirstDelta() {
+        FakeProvider failing = new FakeProvider("failing", 0, 0);
+        failing.streamDeltas = 0;
+        FakeProvider healthy = new FakeProvider("healthy", 0, 0);
+        List<String> deltas = new ArrayList<>();
+        AtomicReference<Completion> completed = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        // 无论先选中哪个服务商，最终都由正常的服务商完成
+        router(new TranslateProperties(), failing, healthy)
+                .streamQuestion("", "q", new StreamHandle(), deltas::add, completed::set, error::set);
+        assertEquals(Arrays.asList("译"), deltas);
+        assertNotNull(completed.get());
+        assertNull(error.get());
+        assertEquals(1, healthy.streamCalls.get());
+    }
+
+    @Test
+    void streamDoesNotFailOverAfterFirstDelta() {
+        FakeProvider first = new FakeProvider("first", 0, 0);
+        first.streamDeltas = 1;
+        FakeProvider second = new FakeProvider("second", 0, 0);
+        second.streamDeltas = 1;
+        List<String> deltas = new ArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        router(new TranslateProperties(), first, second)
+                .streamQuestion("", "q", new StreamHandle(), deltas::add, c -> fail("should not complete"), error::set);
+        assertEquals(Arrays.asList("译"), deltas);
+        assertNotNull(error.get());
+        assertEquals(1, first.streamCalls.get() + second.streamCalls.get());
+    }
+
+    @Test
+    void cancelReachesProviderAfterFailover() {
+        FakeProvider failing = new FakeProvider("failing", 0, 0);
+        failing.streamDeltas = 0;
+        FakeProvider hanging = new FakeProvider("hanging", 0, 0);
+        hanging.hang = true;
+        StreamHandle handle = new StreamHandle();
+
+        router(new TranslateProperties(), failing, hanging)
+                .streamQuestion("", "q", handle, d -> fail("no delta"), c -> fail("should not complete"),
+                        e -> fail("should not fail"));
+        assertEquals(1, hanging.streamCalls.get());
+        handle.cancel();
+        handle.cancel();
+        // 取消动作指向当前正在进行的调用，且只执行一次
+        assertEquals(1, hanging.cancelled.get());
+        assertEquals(0, failing.cancelled.get());
+    }
+
+    private static RoutingTranslationProvider router(TranslateProperties properties, TranslationProvider... providers) {
+        UsageTracker usageTracker = new UsageTracker();
+        ReflectionTestUtils.setField(usageTracker, "properties", properties);
+        usageTracker.init();
+        RoutingTranslationProvider router = new RoutingTranslationProvider();
+        ReflectionTestUtils.setField(router, "properties", properties);
+        ReflectionTestUtils.setField(router, "usageTracker", usageTracker);
+        ReflectionTestUtils.setField(router, "providers", Arrays.asList(providers));
+        List<Integer> weights = new ArrayList<>();
+        for (int i = 0; i < providers.length; i++) {
+            weights.add(1);
+        }
+        ReflectionTestUtils.setField(router, "weights", weights);
+        return router;
+    }
+
+    private static class FakeProvider implements TranslationProvider {
+
+        private final String name;
+
+        private final long p95;
+
+        private final int samples;
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicInteger streamCalls = new AtomicInteger();
+
+        private final AtomicInteger cancelled = new AtomicInteger();
+
+        /**
+         * 为true时流式调用一直不结束，用于验证取消
+         */
+        private boolean hang;
+
+        /**
+         * 流式调用发出的增量数，为null时正常完成，否则发出指定数量的增量后失败
+         */
+        private Integer streamDeltas;
+
+        FakeProvider(String name, long p95, int samples) {
+            this.name = name;
+            this.p95 = p95;
+            this.samples = samples;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public CompletableFuture<Completion> completeAsync(String context, String question) {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(new Completion("{}", 1, 1));
+        }
+
+        @Override
+        public void streamQuestion(String context, String question, StreamHandle handle, Consumer<String> onDelta,
+                                   Consumer<Completion> onComplete, Consumer<Throwable> onError) {
+            streamCalls.incrementAndGet();
+            handle.onCancel(cancelled::incrementAndGet);
+            if (hang) {
+                return;
+            }
+            if (streamDeltas == null) {
+                onDelta.accept("译");
+                onComplete.accept(new Completion("译", 1, 1));
+                return;
+            }
+            for (int i = 0; i < streamDeltas; i++) {
+                onDelta.accept("译");
+            }
+            onError.accept(new IllegalStateException("boom"));
+        }
+
+        @Override
+        public long getLatencyP95() {
+            return p95;
+        }
+
+        @Override
+        public int getLatencySamples() {
+            return samples;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.translate.usage;
+
+import com.example.translate.config.TranslateProperties;
+import com.example.translate.exception.QuotaExceededException;
+import com.example.translate.thirdpart.Completion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsageTrackerTest {
+
+    @Test
+    void onlyConfiguredKeysGetTheirOwnClient() {
+        UsageTracker tracker = tracker(new TranslateProperties());
+        assertEquals("team-a", tracker.resolveClient("secret-a", "10.0.0.1"));
+        assertEquals("ip:10.0.0.1", tracker.resolveClient(null, "10.0.0.1"));
+        // 未配置的API key按IP统计，更换请求头取值不会得到新的配额
+        assertEquals("ip:10.0.0.1", tracker.resolveClient("other-secret", "10.0.0.1"));
+        assertEquals("ip:10.0.0.1", tracker.resolveClient("another-secret", "10.0.0.1"));
+    }
+
+    @Test
+    void rejectsRequestsOverLimit() {
+        TranslateProperties properties = new TranslateProperties();
+        properties.getUsage().setRequestsPerMinute(2);
+        UsageTracker tracker = tracker(properties);
+        tracker.acquire("ip:10.0.0.1");
+        tracker.acquire("ip:10.0.0.1");
+        QuotaExceededException e = assertThrows(QuotaExceededException.class, () -> tracker.acquire("ip:10.0.0.1"));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        // 配额按调用方独立计算
+        tracker.acquire("ip:10.0.0.2");
+        // 单独配置的调用方不限制请求数
+        for (int i = 0; i < 10; i++) {
+            tracker.acquire("team-a");
+        }
+    }
+
+    @Test
+    void rejectsAfterTokenBudgetIsSpent() {
+        UsageTracker tracker = tracker(new TranslateProperties());
+        tracker.acquire("team-a");
+        tracker.record("team-a", new Completion("", 600, 500), 10);
+        assertThrows(QuotaExceededException.class, () -> tracker.acquire("team-a"));
+        // 未关联调用方的内部调用不受配额限制
+        tracker.record(null, new Completion("", 10000, 10000), 10);
+        tracker.acquire(null);
+    }
+
+    @Test
+    void exemptionDoesNotDependOnClientName() {
+        TranslateProperties properties = new TranslateProperties();
+        properties.getUsage().setRequestsPerMinute(1);
+        UsageTracker tracker = tracker(properties);
+        tracker.acquire(UsageTracker.INTERNAL);
+        assertThrows(QuotaExceededException.class, () -> tracker.acquire(UsageTracker.INTERNAL));
+
+        TranslateProperties.Client reserved = new TranslateProperties.Client();
+        reserved.setName(UsageTracker.INTERNAL);
+        reserved.setApiKey("secret-b");
+        properties.getUsage().getClients().add(reserved);
+        UsageTracker invalid = new UsageTracker();
+        ReflectionTestUtils.setField(invalid, "properties", properties);
+        assertThrows(IllegalStateException.class, invalid::init);
+    }
+
+    @Test
+    void coalescedRequestsAreCountedWithoutSpendingTokens(@TempDir Path dir) throws IOException {
+        TranslateProperties properties = new TranslateProperties();
+        properties.getUsage().setFlushFile(dir.resolve("usage.log").toString());
+        UsageTracker tracker = tracker(properties);
+        tracker.acquire("team-a");
+        tracker.recordCoalesced("team-a");
+        tracker.record(null, new Completion("", 1, 1), 10);
+        // 合并的请求没有消耗token配额
+        tracker.acquire("team-a");
+
+        tracker.flush();
+        List<String> lines = Files.readAllLines(dir.resolve("usage.log"));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"client\":\"team-a\""), lines.get(0));
+        assertTrue(lines.get(0).contains("\"coalesced\":1"), lines.get(0));
+        assertTrue(lines.get(0).contains("\"prompt_tokens\":0"), lines.get(0));
+        assertTrue(lines.get(1).contains("\"client\":\"internal\""), lines.get(1));
+    }
+
+    private static UsageTracker tracker(TranslateProperties properties) {
+        TranslateProperties.Client client = new TranslateProperties.Client();
+        client.setName("team-a");
+        client.setApiKey("secret-a");
+        client.setRequestsPerMinute(0);
+        client.setTokensPerMinute(1000L);
+        properties.getUsage().getClients().add(client);
+        UsageTracker tracker = new UsageTracker();
+        ReflectionTestUtils.setField(tracker, "properties", properties);
+        tracker.init();
+        return tracker;
+    }
+}
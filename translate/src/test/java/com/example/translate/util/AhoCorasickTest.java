@@ -0,0 +1,31 @@
+package com.example.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AhoCorasickTest {
+
+    @Test
+    void findsOverlappingPatternsOnWholeWords() {
+        AhoCorasick matcher = AhoCorasick.build(Arrays.asList("machine learning", "learning", "earn", "model"));
+
+        assertEquals(Arrays.asList(0, 1), matcher.findAll("Machine  Learning is fun"));
+        assertEquals(Collections.singletonList(1), matcher.findAll("deep learning, then learning again"));
+        // earn 只在单词内部出现，不算命中；models 也不是完整单词
+        assertEquals(Collections.emptyList(), matcher.findAll("relearned models"));
+        assertEquals(Collections.singletonList(3), matcher.findAll("a model."));
+    }
+
+    @Test
+    void normalizesWhitespaceInPatterns() {
+        AhoCorasick matcher = AhoCorasick.build(Arrays.asList("  Neural\tNetwork ", ""));
+
+        assertEquals(Collections.singletonList(0), matcher.findAll("a neural\nnetwork"));
+        assertEquals(Collections.emptyList(), matcher.findAll(null));
+        assertEquals(Collections.emptyList(), AhoCorasick.build(Collections.emptyList()).findAll("text"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.translate.util;
+
+import com.example.translate.model.word.DynamicTable;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledWordTemplateTest {
+
+    private static CompiledWordTemplate template;
+
+    @BeforeAll
+    static void compile() throws IOException {
+        template = CompiledWordTemplate.compile(new ClassPathResource("file/template.docx").getInputStream());
+    }
+
+    @Test
+    void replacesPlaceholdersAndInsertsTableAtAnchor() throws IOException {
+        Map<String, String> data = new HashMap<>();
+        data.put("input", "Tom & Jerry <cartoon>");
+        data.put("output", "汤姆和杰瑞\n第二段");
+        List<List<String>> rows = Arrays.asList(
+                Arrays.asList("cat", "猫", "一种动物"),
+                Arrays.asList("mouse", "老鼠", "另一种动物"));
+        DynamicTable table = new DynamicTable("vocabulary", Arrays.asList("单词", "中文", "解释"), rows);
+
+        try (XWPFDocument document = render(data, Collections.singletonList(table))) {
+            String text = document.getParagraphs().stream().map(XWPFParagraph::getText)
+                    .collect(Collectors.joining("\n"));
+            assertTrue(text.contains("Tom & Jerry <cartoon>"));
+            assertTrue(text.contains("汤姆和杰瑞"));
+            assertTrue(text.contains("第二段"));
+            assertFalse(text.contains("${"));
+
+            assertEquals(1, document.getTables().size());
+            XWPFTable xwpfTable = document.getTables().get(0);
+            assertEquals(3, xwpfTable.getRows().size());
+            assertEquals("单词", xwpfTable.getRow(0).getCell(0).getText());
+            assertEquals("老鼠", xwpfTable.getRow(2).getCell(1).getText());
+        }
+    }
+
+    @Test
+    void keepsPlaceholdersWithoutData() throws IOException {
+        try (XWPFDocument document = render(Collections.singletonMap("input", "hello"), null)) {
+            String text = document.getParagraphs().stream().map(XWPFParagraph::getText)
+                    .collect(Collectors.joining("\n"));
+            assertTrue(text.contains("hello"));
+            assertTrue(text.contains("${output}"));
+            assertTrue(text.contains("${vocabulary}"));
+            assertTrue(document.getTables().isEmpty());
+        }
+    }
+
+    private static XWPFDocument render(Map<String, String> data, List<DynamicTable> tables) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        template.render(out, data, tables);
+        return new XWPFDocument(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.translate.util;
+
+import com.example.translate.config.TranslateProperties;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnglishDetectorTest {
+
+    private static EnglishDetector detector;
+
+    @BeforeAll
+    static void load() throws IOException {
+        try (InputStream in = EnglishDetectorTest.class.getResourceAsStream("/file/english-trigrams.txt")) {
+            detector = EnglishDetector.load(in, new TranslateProperties.Detect());
+        }
+    }
+
+    @Test
+    void acceptsEnglish() {
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect("Hello world"));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect("12345, 67890!"));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect(
+                "Researchers at the university published a study showing that regular exercise improves memory."));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect(
+                "Kubernetes schedules containers across nodes, autoscaling pods based on CPU utilization metrics."));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect(
+                "We met at a small café near the station and talked about the naïve plans we had as students."));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect(
+                "TL;DR: OK, LGTM. PTAL at the PR… AWS EKS w/ ECR is flaky."));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect(
+                "Mr. Nguyen, Ms. Xu and Dr. Tchaikovsky visited Szczecin, Wroclaw and Kyzylorda last spring."));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect(
+                "Norepinephrine binds the α-adrenergic receptor on vascular smooth muscle."));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect("The filter removes particles larger than 5 μm."));
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect("The filter removes particles larger than 5 µm."));
+    }
+
+    @Test
+    void rejectsOtherScripts() {
+        assertEquals(EnglishDetector.Verdict.CJK, detector.detect("你好，世界"));
+        assertEquals(EnglishDetector.Verdict.CJK, detector.detect("Hello 世界"));
+        assertEquals(EnglishDetector.Verdict.NON_LATIN, detector.detect("Привет, мир"));
+        assertEquals(EnglishDetector.Verdict.NON_LATIN, detector.detect("Καλημέρα κόσμε"));
+    }
+
+    @Test
+    void rejectsAccentedLanguagesAndGibberish() {
+        assertEquals(EnglishDetector.Verdict.ACCENTED, detector.detect(
+                "Le gouvernement a annoncé hier une réforme des retraites très critiquée à l'étranger."));
+        assertEquals(EnglishDetector.Verdict.NOT_ENGLISH, detector.detect(
+                "asdkjh qwelkj zxcmnb poiuqw lkjasd mnbzxc qwepoi asdlkj zxcmnb qweiop asdjkl"));
+        // 三元组分数与英文重叠的语言默认交给大模型判断
+        assertEquals(EnglishDetector.Verdict.ENGLISH, detector.detect(
+                "Il governo ha annunciato ieri una nuova riforma delle pensioni che ha suscitato molte critiche nel paese."));
+    }
+
+    @Test
+    void stricterScoreIsOptIn() throws IOException {
+        TranslateProperties.Detect config = new TranslateProperties.Detect();
+        config.setMinScore(-4.6);
+        try (InputStream in = EnglishDetectorTest.class.getResourceAsStream("/file/english-trigrams.txt")) {
+            EnglishDetector strict = EnglishDetector.load(in, config);
+            assertEquals(EnglishDetector.Verdict.NOT_ENGLISH, strict.detect(
+                    "De regering heeft gisteren een nieuwe pensioenhervorming aangekondigd die in het hele land veel kritiek oproept."));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void sharesInFlightCallAndForgetsItAfterwards() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = flight.execute("a", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = flight.execute("a", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        CompletableFuture<String> different = flight.execute("b", () -> CompletableFuture.completedFuture("b"));
+
+        assertEquals(1, flight.inFlight());
+        upstream.complete("x");
+        assertEquals("x", first.join());
+        assertEquals("x", second.join());
+        assertEquals("b", different.join());
+        assertEquals(1, calls.get());
+        assertEquals(0, flight.inFlight());
+        assertEquals(2, flight.getExecuted());
+        assertEquals(1, flight.getCoalesced());
+
+        assertEquals("y", flight.execute("a", () -> CompletableFuture.completedFuture("y")).join());
+    }
+
+    @Test
+    void sharesFailures() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("a", () -> upstream);
+        CompletableFuture<String> second = flight.execute("a", () -> upstream);
+        upstream.completeExceptionally(new IllegalStateException("boom"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+
+        CompletableFuture<String> thrown = flight.execute("a", () -> {
+            throw new IllegalStateException("sync");
+        });
+        assertTrue(thrown.isCompletedExceptionally());
+        assertEquals(0, flight.inFlight());
+    }
+}
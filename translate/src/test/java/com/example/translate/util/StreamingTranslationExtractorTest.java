@@ -0,0 +1,28 @@
+package com.example.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingTranslationExtractorTest {
+
+    @Test
+    void extractsTranslationAcrossChunks() {
+        StreamingTranslationExtractor extractor = new StreamingTranslationExtractor();
+        String[] chunks = {"```json\n{\"success\": true, \"trans", "lation\"", ": \"机器", "学习\\", "n是\\u4e", "00种\\\"",
+                "方法\", \"vocabulary\": []}"};
+        StringBuilder out = new StringBuilder();
+        for (String chunk : chunks) {
+            out.append(extractor.feed(chunk));
+        }
+        assertEquals("机器学习\n是一种\"方法", out.toString());
+        assertTrue(extractor.isDone());
+    }
+
+    @Test
+    void emitsNothingForFailedTranslation() {
+        StreamingTranslationExtractor extractor = new StreamingTranslationExtractor();
+        assertEquals("", extractor.feed("{\"success\": false, \"translation\": \"\"}"));
+        assertTrue(extractor.isDone());
+    }
+}
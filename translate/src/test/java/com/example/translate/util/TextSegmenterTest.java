@@ -0,0 +1,51 @@
+package com.example.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextSegmenterTest {
+
+    @Test
+    void shortTextIsSingleSegment() {
+        List<TextSegmenter.Segment> segments = TextSegmenter.split("Hello world. How are you?", 100);
+        assertEquals(1, segments.size());
+        assertEquals("Hello world. How are you?", segments.get(0).getText());
+    }
+
+    @Test
+    void splitsBySentenceWithinBudget() {
+        String text = "First sentence is here. Second sentence is here. Third sentence is here.";
+        List<TextSegmenter.Segment> segments = TextSegmenter.split(text, 8);
+
+        assertTrue(segments.size() > 1);
+        StringBuilder joined = new StringBuilder();
+        for (TextSegmenter.Segment segment : segments) {
+            assertTrue(segment.getText().length() <= 8 * 4, segment.getText());
+            joined.append(segment.getText()).append(segment.getSeparator());
+        }
+        assertEquals(text, joined.toString());
+    }
+
+    @Test
+    void keepsParagraphBreaksInTranslatedSeparator() {
+        List<TextSegmenter.Segment> segments = TextSegmenter.split("Paragraph one.\n\nParagraph two.", 4);
+
+        assertEquals(2, segments.size());
+        assertEquals("\n\n", segments.get(0).translatedSeparator());
+        assertEquals("", segments.get(1).translatedSeparator());
+    }
+
+    @Test
+    void splitsOverlongSentenceOnWhitespace() {
+        String text = "aaaa bbbb cccc dddd eeee ffff gggg hhhh";
+        List<TextSegmenter.Segment> segments = TextSegmenter.split(text, 3);
+
+        assertTrue(segments.size() > 1);
+        for (TextSegmenter.Segment segment : segments) {
+            assertTrue(segment.getText().length() <= 12, segment.getText());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.translate.util;
+
+import com.example.translate.exception.ResultParseException;
+import com.example.translate.model.TranslateOutput;
+import com.fasterxml.jackson.databind.JavaType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslateResultParserTest {
+
+    private static final String JSON = "{\"success\": true, \"translation\": \"你好 {世界}\", \"vocabulary\": []}";
+
+    @Test
+    void toleratesFencesAndProse() {
+        assertEquals("你好 {世界}", TranslateResultParser.parse(JSON).getTranslation());
+        assertEquals("你好 {世界}", TranslateResultParser.parse("```json\n" + JSON + "\n```").getTranslation());
+
+        TranslateOutput output = TranslateResultParser.parse(
+                "Sure! Here is the result {as requested}:\n```json\n" + JSON + "\n```\nHope this helps {:}");
+        assertTrue(output.getSuccess());
+        assertEquals("你好 {世界}", output.getTranslation());
+    }
+
+    @Test
+    void extractsArrays() {
+        JavaType type = TranslateResultParser.OBJECT_MAPPER.getTypeFactory()
+                .constructCollectionType(List.class, Map.class);
+        List<Map<String, Object>> items = TranslateResultParser.extract(
+                "Result [2 items]:\n```json\n[{\"index\": 0}, {\"index\": 1}]\n```", type, '[');
+        assertEquals(2, items.size());
+    }
+
+    @Test
+    void failsWithoutJsonOrSuccess() {
+        assertThrows(ResultParseException.class, () -> TranslateResultParser.parse("抱歉，无法翻译"));
+        assertThrows(ResultParseException.class, () -> TranslateResultParser.parse("{\"success\": true, \"transl"));
+        assertThrows(ResultParseException.class, () -> TranslateResultParser.parse("{\"translation\": \"x\"}"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsTest {
+
+    @Test
+    void createsVirtualExecutorOnlyWhenSupported() throws Exception {
+        ExecutorService executor = VirtualThreads.newExecutor("test-virtual-");
+        if (!VirtualThreads.isSupported()) {
+            assertNull(executor);
+            assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+            return;
+        }
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get();
+            assertTrue(VirtualThreads.isVirtual(thread));
+            assertTrue(thread.getName().startsWith("test-virtual-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}